@@ -0,0 +1,39 @@
+#!/bin/bash
+# Measures time-to-first-request: from launching the JVM until GET /api/client/{id}
+# answers (any HTTP status), repeated RUNS times, then prints each run and the median.
+#
+#   scripts/startup-time.sh java -jar target/tradingapp-0.0.1-SNAPSHOT.jar
+#   RUNS=5 scripts/startup-time.sh java -XX:SharedArchiveFile=target/fast-start/tradingapp.jsa \
+#       -Dspring.aot.enabled=true -jar target/fast-start/tradingapp.jar
+set -u
+
+RUNS=${RUNS:-3}
+PORT=${PORT:-8080}
+URL="http://localhost:${PORT}/api/client/STARTUP-PROBE"
+
+if [ $# -eq 0 ]; then
+    sed -n '2,8p' "$0"
+    exit 1
+fi
+
+times=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" --logging.level.root=WARN > /dev/null 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before answering, run it directly to see why" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    times+=("$elapsed")
+    echo "run $run: ${elapsed} ms"
+    kill "$pid"
+    wait "$pid" 2> /dev/null
+done
+
+median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR + 1) / 2)]}')
+echo "median time-to-first-request: ${median} ms over ${RUNS} run(s)"
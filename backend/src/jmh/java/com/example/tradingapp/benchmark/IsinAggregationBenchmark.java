@@ -0,0 +1,84 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.analytics.IsinAggregator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Grouping positions by ISIN: Collectors.groupingBy with boxed sums against
+ * the open-addressing IsinAggregator, sequential and on fork-join partitions.
+ * ISIN strings are shared per instrument, as after InstrumentCache interning.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark="IsinAggregationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IsinAggregationBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"5000", "200000"})
+    private int instruments;
+
+    private List<Transaction> positions;
+    private IsinAggregator.Rows aggregatorRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] isins = new String[instruments];
+        for (int i = 0; i < instruments; i++) {
+            isins[i] = String.format("DE%010d", i);
+        }
+        Random random = new Random(42);
+        positions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction position = new Transaction();
+            position.setIsin(isins[random.nextInt(instruments)]);
+            position.setQuantity(random.nextInt(100) + 1);
+            position.setTotalValue(random.nextDouble() * 10_000);
+            positions.add(position);
+        }
+        aggregatorRows = IsinAggregator.Rows.of(positions);
+    }
+
+    @Benchmark
+    public int groupingBy() {
+        Map<String, Totals> totals = positions.stream().collect(Collectors.groupingBy(Transaction::getIsin,
+                Collectors.teeing(Collectors.summingDouble(Transaction::getQuantity),
+                        Collectors.summingDouble(Transaction::getTotalValue), Totals::new)));
+        return totals.size();
+    }
+
+    @Benchmark
+    public int groupingByParallel() {
+        Map<String, Totals> totals = positions.parallelStream().collect(Collectors.groupingByConcurrent(Transaction::getIsin,
+                Collectors.teeing(Collectors.summingDouble(Transaction::getQuantity),
+                        Collectors.summingDouble(Transaction::getTotalValue), Totals::new)));
+        return totals.size();
+    }
+
+    @Benchmark
+    public int aggregator() {
+        return IsinAggregator.sequential(aggregatorRows).size();
+    }
+
+    @Benchmark
+    public int aggregatorParallel() {
+        return IsinAggregator.parallel(aggregatorRows).size();
+    }
+
+    record Totals(double quantity, double totalValue) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.service.parser.FuzzedStatements;
+import com.example.tradingapp.service.parser.StatementParserRegistry;
+import com.example.tradingapp.service.parser.TradeRepublicLineParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fuzz-style throughput of the " Stk. " line parser. Cost per block should
+ * stay flat as documents grow and as the share of corrupted lines rises;
+ * "adversarial" is a document of anchors that never complete.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LineParserBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineParserBenchmark {
+
+    @Param({"1000", "10000"})
+    private int blocks;
+
+    @Param({"0.0", "0.2", "adversarial"})
+    private String corruption;
+
+    private final StatementParserRegistry registry = new StatementParserRegistry(List.of(new TradeRepublicLineParser()));
+    private String content;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        content = "adversarial".equals(corruption)
+                ? "1 Stk. Anchor\n".repeat(blocks * 6)
+                : FuzzedStatements.generate(new Random(42), blocks, Double.parseDouble(corruption));
+    }
+
+    @Benchmark
+    public int parse() throws IOException {
+        ParsedStatement statement = registry.parse(new StringReader(content));
+        return statement.getPositions().size() + statement.getIssueCount();
+    }
+}
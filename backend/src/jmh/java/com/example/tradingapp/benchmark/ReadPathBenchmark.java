@@ -0,0 +1,94 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.TradingAppApplication;
+import com.example.tradingapp.data.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity loading versus DTO projection for GET /api/transactions/{clientId}.
+ * The entity variant runs in a read-write transaction, like a request with
+ * open-in-view, so dirty-checking snapshots are part of the cost. Run with
+ * the GC profiler to compare allocations per request:
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark="ReadPathBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final String DEPOT = "BENCH-READ";
+
+    @Param({"50", "2000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(TradingAppApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run("--logging.level.root=WARN", "--spring.jpa.show-sql=false");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> instruments = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String isin = String.format("DE%010d", i);
+            double quantity = 1 + i % 100;
+            instruments.add(new Object[]{isin, "Asset " + i, "T" + i, "Aktie"});
+            batch.add(new Object[]{DEPOT, isin, quantity, 12.5, quantity * 12.5, isin});
+        }
+        jdbcTemplate.batchUpdate("insert into instruments (isin, asset, ticker, asset_type) values (?, ?, ?, ?)", instruments);
+        jdbcTemplate.batchUpdate(
+                "insert into transactions (id, client_id, isin, quantity, unit_price, total_value, instrument_id) "
+                        + "select next value for transactions_seq, ?, ?, ?, ?, ?, id from instruments where isin = ?", batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int entities() {
+        return transactionTemplate.execute(status -> write(transactionRepository.findByClientId(DEPOT)));
+    }
+
+    @Benchmark
+    public int projections() {
+        return write(transactionRepository.findViewsByClientId(DEPOT));
+    }
+
+    private int write(Object body) {
+        out.reset();
+        try {
+            objectMapper.writeValue(out, body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.size();
+    }
+}
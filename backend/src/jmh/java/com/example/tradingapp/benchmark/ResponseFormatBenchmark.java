@@ -0,0 +1,108 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.config.ColumnarJsonHttpMessageConverter;
+import com.example.tradingapp.data.TransactionView;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of a transaction list per response format.
+ * The payload size of every format is printed once per trial.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ResponseFormatBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private List<TransactionView> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            double quantity = 1 + i % 100;
+            double unitPrice = 10.5 + i % 1000;
+            transactions.add(new TransactionView((long) i, "DEPOT-0001", null, "2024-01-01", "Asset " + (i % 500),
+                    String.format("DE%010d", i % 500), "T" + (i % 500), i % 3 == 0 ? "ETF" : "Aktie",
+                    quantity, unitPrice, quantity * unitPrice));
+        }
+        System.out.printf("%nPayload bytes for %d rows: json=%d columnar=%d cbor=%d smile=%d json+gzip=%d columnar+gzip=%d%n",
+                rows, json(), columnar(), cbor(), smile(), jsonGzip(), columnarGzip());
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        out.reset();
+        json.writeValue(out, transactions);
+        return out.size();
+    }
+
+    @Benchmark
+    public int columnar() throws IOException {
+        out.reset();
+        writeColumnar(out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int cbor() throws IOException {
+        out.reset();
+        cbor.writeValue(out, transactions);
+        return out.size();
+    }
+
+    @Benchmark
+    public int smile() throws IOException {
+        out.reset();
+        smile.writeValue(out, transactions);
+        return out.size();
+    }
+
+    @Benchmark
+    public int jsonGzip() throws IOException {
+        out.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            json.writeValue(gzip, transactions);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int columnarGzip() throws IOException {
+        out.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writeColumnar(gzip);
+        }
+        return out.size();
+    }
+
+    private void writeColumnar(OutputStream target) throws IOException {
+        try (JsonGenerator generator = json.getFactory().createGenerator(target, JsonEncoding.UTF8)) {
+            ColumnarJsonHttpMessageConverter.writeColumns(transactions, generator);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.parser.ParserSupport;
+import com.example.tradingapp.service.parser.StatementParserRegistry;
+import com.example.tradingapp.service.parser.TradeRepublicTableParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table statement parsing: the previous split/trim/replace row handling
+ * against the in-place tokenizer. Compare allocations with the GC profiler:
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark="TableParserBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableParserBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private final StatementParserRegistry registry = new StatementParserRegistry(List.of(new TradeRepublicTableParser()));
+    private String content;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("**Depot:** BENCH\n**Datum:** 01.02.2024\n\n")
+                .append("| STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |\n")
+                .append("|-----------------|------------|------|--------|-----|------|-----------|\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append(String.format("| %d,00 | Asset %d Inc. | DE%010d | T%d | Aktie | 1.234,56 | %d.234,56 |%n", i % 100 + 1, i, i, i, i % 100 + 1));
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public int tokenizer() throws IOException {
+        return registry.parse(new StringReader(content)).getPositions().size();
+    }
+
+    @Benchmark
+    public int split() throws IOException {
+        List<Transaction> positions = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(content));
+        boolean inTable = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("| STK. / Nominale |")) {
+                inTable = true;
+                continue;
+            }
+            if (inTable && line.startsWith("|") && !line.startsWith("|---")) {
+                for (String subRow : line.split("\\|\\|")) {
+                    String trimmed = subRow.trim();
+                    if (!trimmed.isEmpty()) {
+                        splitRow(trimmed.startsWith("|") ? trimmed : "|" + trimmed, positions);
+                    }
+                }
+            }
+        }
+        return positions.size();
+    }
+
+    private static void splitRow(String rowLine, List<Transaction> positions) {
+        String[] parts = rowLine.split("\\|");
+        if (parts.length < 8) {
+            return;
+        }
+        String asset = parts[2].trim().replace("<br>", " ").replace("\n", " ");
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(parts[3].trim());
+        transaction.setAsset(asset);
+        transaction.setIsin(parts[3].trim());
+        transaction.setTicker(parts[4].trim());
+        transaction.setAssetType(ParserSupport.detectAssetType(asset));
+        transaction.setQuantity(ParserSupport.parseGermanNumber(parts[1].trim()));
+        transaction.setUnitPrice(ParserSupport.parseGermanNumber(parts[6].trim()));
+        transaction.setTotalValue(ParserSupport.parseGermanNumber(parts[7].trim()));
+        positions.add(transaction);
+    }
+}
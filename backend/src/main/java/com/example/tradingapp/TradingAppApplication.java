@@ -1,14 +1,26 @@
 package com.example.tradingapp;
 
+import com.example.tradingapp.service.backfill.BackfillRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
 
 @SpringBootApplication
 public class TradingAppApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(TradingAppApplication.class, args);
+        SpringApplication application = new SpringApplication(TradingAppApplication.class);
+        // Headless backfill, see BackfillRunner. Decided once the environment is bound, so the
+        // directory may come from arguments, system properties, environment variables or config files
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event -> {
+            if (BackfillRunner.isRequested(event.getEnvironment())) {
+                event.getSpringApplication().setWebApplicationType(WebApplicationType.NONE);
+            }
+        });
+        application.run(args);
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.example.tradingapp.config;
+
+import com.example.tradingapp.data.TransactionView;
+import com.example.tradingapp.service.analytics.DepotPositions;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Writes transaction lists in a columnar JSON shape: one array per field
+ * instead of one object per row, so field names appear once per response.
+ *
+ * <pre>{"count":2,"clientId":["1","1"],...,"quantity":[10.0,5.0],...}</pre>
+ *
+ * Selected with {@code Accept: application/vnd.tradingapp.columnar+json}.
+ * The generator writes straight to the response stream.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<TransactionView>> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.tradingapp.columnar+json");
+
+    private static final List<StringColumn> STRING_COLUMNS = List.of(
+            new StringColumn("clientId", TransactionView::clientId),
+            new StringColumn("transactionId", TransactionView::transactionId),
+            new StringColumn("date", TransactionView::date),
+            new StringColumn("asset", TransactionView::asset),
+            new StringColumn("isin", TransactionView::isin),
+            new StringColumn("ticker", TransactionView::ticker),
+            new StringColumn("assetType", TransactionView::assetType));
+
+    private static final List<NumberColumn> NUMBER_COLUMNS = List.of(
+            new NumberColumn("quantity", TransactionView::quantity),
+            new NumberColumn("unitPrice", TransactionView::unitPrice),
+            new NumberColumn("totalValue", TransactionView::totalValue));
+
+    private final JsonFactory jsonFactory;
+
+    public ColumnarJsonHttpMessageConverter(JsonFactory jsonFactory) {
+        super(COLUMNAR_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == TransactionView.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(List<TransactionView> transactions, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            writeColumns(transactions, generator);
+        }
+    }
+
+    /**
+     * Writes the columnar document for the given rows.
+     */
+    public static void writeColumns(List<TransactionView> transactions, JsonGenerator generator) throws IOException {
+        if (transactions instanceof DepotPositions positions) {
+            positions.writeColumns(generator);
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField("count", transactions.size());
+        for (StringColumn column : STRING_COLUMNS) {
+            generator.writeArrayFieldStart(column.name());
+            for (TransactionView transaction : transactions) {
+                generator.writeString(column.getter().apply(transaction));
+            }
+            generator.writeEndArray();
+        }
+        for (NumberColumn column : NUMBER_COLUMNS) {
+            generator.writeArrayFieldStart(column.name());
+            for (TransactionView transaction : transactions) {
+                generator.writeNumber(column.getter().applyAsDouble(transaction));
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public List<TransactionView> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response-only format", inputMessage);
+    }
+
+    @Override
+    protected List<TransactionView> readInternal(Class<? extends List<TransactionView>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response-only format", inputMessage);
+    }
+
+    private record StringColumn(String name, Function<TransactionView, String> getter) {
+    }
+
+    private record NumberColumn(String name, ToDoubleFunction<TransactionView> getter) {
+    }
+}
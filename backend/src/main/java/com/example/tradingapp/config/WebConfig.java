@@ -0,0 +1,40 @@
+package com.example.tradingapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response formats besides the default JSON. CBOR and Smile converters are
+ * registered by Spring MVC because their Jackson modules are on the classpath.
+ * The columnar JSON converter has to sit before the JSON converter, which
+ * would otherwise claim every {@code +json} type, so {@code Accept: *}{@code /*}
+ * is pinned to plain JSON.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.defaultContentType(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int index = 0;
+        while (index < converters.size() && !(converters.get(index) instanceof MappingJackson2HttpMessageConverter)) {
+            index++;
+        }
+        converters.add(index, new ColumnarJsonHttpMessageConverter(objectMapper.getFactory()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.ParseAlert;
+import com.example.tradingapp.service.FileProcessingService;
+import com.example.tradingapp.service.diagnostics.SlowUpload;
+import com.example.tradingapp.service.diagnostics.SlowUploadLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private SlowUploadLog slowUploadLog;
+
+    @Autowired
+    private DepotSummaryRepository depotSummaryRepository;
+
+    @PostMapping("/journal/replay")
+    public Map<String, Integer> replayJournal() {
+        int depots = fileProcessingService.rebuildFromJournal();
+        return Map.of("depots", depots);
+    }
+
+    /**
+     * The most recent uploads above the slow-upload threshold, newest first.
+     */
+    @GetMapping("/slow-uploads")
+    public List<SlowUpload> slowUploads() {
+        return slowUploadLog.recent();
+    }
+
+    /**
+     * Depots whose current statement does not add up to its own summary.
+     */
+    @GetMapping("/parse-alerts")
+    public List<ParseAlert> parseAlerts() {
+        return depotSummaryRepository.findByAlertIsNotNullOrderByClientId();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.service.analytics.PositionColumnStore;
+import com.example.tradingapp.service.analytics.PositionColumnStore.IsinAggregate;
+import com.example.tradingapp.service.analytics.PositionSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cross-depot aggregates served from the in-memory column store.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173") // For frontend
+public class AnalyticsController {
+
+    @Autowired
+    private PositionColumnStore positionColumnStore;
+
+    @Autowired
+    private PositionSnapshot positionSnapshot;
+
+    @GetMapping("/allocation")
+    public Map<String, Double> getAllocation() {
+        return positionColumnStore.totalValueByAssetType();
+    }
+
+    @GetMapping("/top-holdings")
+    public List<IsinAggregate> getTopHoldings(@RequestParam(defaultValue = "10") int limit) {
+        return positionColumnStore.topHoldings(limit);
+    }
+
+    /**
+     * Holdings of a group of depots, aggregated by ISIN.
+     */
+    @GetMapping("/depot-holdings")
+    public List<IsinAggregate> getDepotHoldings(@RequestParam List<String> depots,
+                                                @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int limit) {
+        return positionSnapshot.holdings(depots, limit);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.service.export.ExportFormat;
+import com.example.tradingapp.service.export.PositionExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Bulk exports of all depots for reporting.
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:5173") // For frontend
+public class ExportController {
+
+    @Autowired
+    private PositionExporter positionExporter;
+
+    /**
+     * Every position of every depot as gzip CSV or the columnar binary format,
+     * streamed while the table is read.
+     */
+    @GetMapping("/positions")
+    public ResponseEntity<?> exportPositions(@RequestParam(defaultValue = "csv") String format,
+                                             HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown export format: " + format));
+        }
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.filename() + "\"");
+        positionExporter.export(exportFormat, response.getOutputStream());
+        return null; // Written to the response
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.DepotHolding;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.service.analytics.PositionColumnStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Risk queries across all depots: who holds an instrument and the total exposure.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "http://localhost:5173") // For frontend
+public class ExposureController {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PositionColumnStore positionColumnStore;
+
+    @GetMapping("/holdings/{isin}")
+    public IsinHoldings getHoldings(@PathVariable String isin) {
+        List<DepotHolding> depots = transactionRepository.findHoldingsByIsin(isin);
+        double quantity = 0;
+        double totalValue = 0;
+        for (DepotHolding holding : depots) {
+            quantity += holding.quantity();
+            totalValue += holding.totalValue();
+        }
+        return new IsinHoldings(isin, depots.size(), quantity, totalValue, depots);
+    }
+
+    @GetMapping("/exposure")
+    public ResponseEntity<?> getExposure(@RequestParam(defaultValue = "assetType") String groupBy,
+                                         @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int limit) {
+        if (limit < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must not be negative"));
+        }
+        List<PositionColumnStore.Exposure> exposure;
+        if ("assetType".equals(groupBy)) {
+            exposure = positionColumnStore.exposureByAssetType();
+        } else if ("isin".equals(groupBy)) {
+            exposure = positionColumnStore.exposureByIsin();
+        } else if ("country".equals(groupBy)) {
+            exposure = positionColumnStore.exposureByCountry();
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "groupBy must be 'assetType', 'isin' or 'country'"));
+        }
+        return ResponseEntity.ok(exposure.subList(0, Math.min(limit, exposure.size())));
+    }
+
+    public record IsinHoldings(String isin, int depotCount, double totalQuantity, double totalValue, List<DepotHolding> depots) {
+    }
+}
@@ -1,13 +1,27 @@
 package com.example.tradingapp.controller;
 
+import com.example.tradingapp.data.ClientView;
 import com.example.tradingapp.data.TransactionRepository;
 import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.StatementSummary;
+import com.example.tradingapp.data.TransactionView;
+import com.example.tradingapp.model.DepotSummary;
+import com.example.tradingapp.model.ParsedStatement;
 import com.example.tradingapp.model.Transaction;
-import com.example.tradingapp.model.Client;
+import com.example.tradingapp.service.DepotVersionRegistry;
+import com.example.tradingapp.service.DepotVersionRegistry.DepotVersion;
 import com.example.tradingapp.service.FileProcessingService;
+import com.example.tradingapp.service.analytics.PositionSnapshot;
+import com.example.tradingapp.service.diagnostics.QueryEvent;
+import com.example.tradingapp.service.journal.StatementCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -17,39 +31,139 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173") // For frontend
 public class TradingController {
 
+    // Issues listed in an upload response; the count covers all of them
+    private static final int UPLOAD_ISSUES = 10;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private DepotSummaryRepository depotSummaryRepository;
+
     @Autowired
     private FileProcessingService fileProcessingService;
 
+    @Autowired
+    private DepotVersionRegistry depotVersionRegistry;
+
+    @Autowired
+    private PositionSnapshot positionSnapshot;
+
     @GetMapping("/transactions/{clientId}")
-    public List<Transaction> getTransactions(@PathVariable String clientId) {
-        return transactionRepository.findByClientId(clientId);
+    public ResponseEntity<List<TransactionView>> getTransactions(@PathVariable String clientId, WebRequest request) {
+        DepotVersion version = depotVersionRegistry.current(clientId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 Not Modified, no database access
+        }
+        List<TransactionView> transactions = positionSnapshot.positions(clientId);
+        if (transactions == null) {
+            transactions = transactionRepository.findViewsByClientId(clientId);
+        }
+        QueryEvent.record(request, clientId, transactions.size());
+        return conditional(version).body(transactions);
     }
 
+    /**
+     * Processes the upload. A statement with skipped malformed parts is still
+     * stored; the response then carries the issue count and the first issues.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<java.util.Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<java.util.Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file) {
         try {
-            String depot = fileProcessingService.processFile(file);
-            java.util.Map<String, String> response = new java.util.HashMap<>();
+            ParsedStatement statement = fileProcessingService.processFile(file);
+            String depot = statement.getDepot();
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
             response.put("depot", depot);
-            response.put("message", "File processed successfully for depot: " + depot);
+            response.put("issueCount", statement.getIssueCount());
+            if (statement.getIssueCount() == 0) {
+                response.put("message", "File processed successfully for depot: " + depot);
+            } else {
+                List<String> issues = statement.getIssues();
+                response.put("message", "File processed for depot: " + depot + ", skipped "
+                        + statement.getIssueCount() + " malformed part(s)");
+                response.put("issues", issues.subList(0, Math.min(UPLOAD_ISSUES, issues.size())));
+            }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            java.util.Map<String, String> error = new java.util.HashMap<>();
+            java.util.Map<String, Object> error = new java.util.HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
     }
 
+    @GetMapping("/statements/{clientId}")
+    public ResponseEntity<List<StatementSummary>> getStatements(@PathVariable String clientId, WebRequest request) {
+        DepotVersion version = depotVersionRegistry.current(clientId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        List<StatementSummary> statements = statementSnapshotRepository.findByClientIdOrderByVersionDesc(clientId);
+        QueryEvent.record(request, clientId, statements.size());
+        return conditional(version).body(statements);
+    }
+
+    @GetMapping("/statements/{clientId}/{statementDate}")
+    public ResponseEntity<List<Transaction>> getStatementPositions(@PathVariable String clientId, @PathVariable String statementDate,
+                                                                   WebRequest request) {
+        DepotVersion version = depotVersionRegistry.current(clientId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return statementSnapshotRepository.findPayload(clientId, statementDate)
+                .map(payload -> {
+                    List<Transaction> positions = StatementCodec.decode(payload).getPositions();
+                    QueryEvent.record(request, clientId, positions.size());
+                    return conditional(version).body(positions);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/client/{id}")
-    public ResponseEntity<Client> getClient(@PathVariable String id) {
-        return clientRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ClientView> getClient(@PathVariable String id, WebRequest request) {
+        DepotVersion version = depotVersionRegistry.current(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return clientRepository.findViewById(id)
+                .map(client -> {
+                    QueryEvent.record(request, id, 1);
+                    return conditional(version).body(client);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Position count, total value and asset-type mix of the depot as computed at ingestion,
+     * with the statement's own figures and any mismatch between them.
+     */
+    @GetMapping("/summary/{clientId}")
+    public ResponseEntity<DepotSummary> getSummary(@PathVariable String clientId, WebRequest request) {
+        DepotVersion version = depotVersionRegistry.current(clientId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return depotSummaryRepository.findById(clientId)
+                .map(summary -> {
+                    QueryEvent.record(request, clientId, 1);
+                    return conditional(version).body(summary);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 200 response carrying the depot's validators; no-cache makes browsers revalidate on every use.
+     */
+    private static ResponseEntity.BodyBuilder conditional(DepotVersion version) {
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
 }
\ No newline at end of file
@@ -2,6 +2,15 @@ package com.example.tradingapp.data;
 
 import com.example.tradingapp.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, String> {
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.tradingapp.data.ClientView(c.id, c.name, c.email, c.birthDate, c.depot) "
+            + "from Client c where c.id = :id")
+    Optional<ClientView> findViewById(String id);
+}
@@ -0,0 +1,7 @@
+package com.example.tradingapp.data;
+
+/**
+ * Read-only projection of a client, serialized with the same field names as the entity.
+ */
+public record ClientView(String id, String name, String email, String birthDate, String depot) {
+}
@@ -0,0 +1,7 @@
+package com.example.tradingapp.data;
+
+/**
+ * Quantity and value of one instrument held in one depot.
+ */
+public record DepotHolding(String clientId, double quantity, double totalValue) {
+}
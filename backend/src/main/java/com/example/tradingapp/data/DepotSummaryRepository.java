@@ -0,0 +1,16 @@
+package com.example.tradingapp.data;
+
+import com.example.tradingapp.model.DepotSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface DepotSummaryRepository extends JpaRepository<DepotSummary, String> {
+
+    /**
+     * Depots whose current statement disagrees with its own summary.
+     */
+    @Transactional(readOnly = true)
+    List<ParseAlert> findByAlertIsNotNullOrderByClientId();
+}
@@ -0,0 +1,12 @@
+package com.example.tradingapp.data;
+
+/**
+ * Read-only view of a depot summary whose figures disagree with the statement.
+ */
+public interface ParseAlert {
+    String getClientId();
+
+    String getStatementDate();
+
+    String getAlert();
+}
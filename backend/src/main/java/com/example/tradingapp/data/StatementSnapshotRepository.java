@@ -0,0 +1,28 @@
+package com.example.tradingapp.data;
+
+import com.example.tradingapp.model.StatementSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface StatementSnapshotRepository extends JpaRepository<StatementSnapshot, Long> {
+    Optional<StatementSnapshot> findByClientIdAndLatestTrue(String clientId);
+
+    Optional<StatementSnapshot> findByClientIdAndStatementDate(String clientId, String statementDate);
+
+    @Transactional(readOnly = true)
+    List<StatementSummary> findByClientIdOrderByVersionDesc(String clientId);
+
+    /**
+     * Only the encoded positions of a snapshot, without loading the entity.
+     */
+    @Transactional(readOnly = true)
+    @Query("select s.payload from StatementSnapshot s where s.clientId = :clientId and s.statementDate = :statementDate")
+    Optional<byte[]> findPayload(String clientId, String statementDate);
+
+    @Query("select coalesce(max(s.version), 0) from StatementSnapshot s where s.clientId = :clientId")
+    int findMaxVersion(String clientId);
+}
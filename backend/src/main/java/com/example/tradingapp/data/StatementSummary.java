@@ -0,0 +1,25 @@
+package com.example.tradingapp.data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a statement snapshot without its position payload.
+ */
+public interface StatementSummary {
+    String getClientId();
+
+    String getStatementDate();
+
+    LocalDate getStatementDay();
+
+    int getVersion();
+
+    boolean isLatest();
+
+    int getPositionCount();
+
+    double getTotalValue();
+
+    LocalDateTime getIngestedAt();
+}
@@ -2,8 +2,27 @@ package com.example.tradingapp.data;
 
 import com.example.tradingapp.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
 
-public interface TransactionRepository extends JpaRepository<Transaction, String> {
+public interface TransactionRepository extends JpaRepository<Transaction, String>, TransactionRepositoryCustom {
     List<Transaction> findByClientId(String clientId);
-}
\ No newline at end of file
+
+    /**
+     * Rows of a depot as DTOs: no entity hydration, no persistence context entries.
+     * The date is the depot's statement date, kept once in its summary.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.example.tradingapp.data.TransactionView(t.id, t.clientId, t.transactionId, "
+            + "coalesce(s.statementDate, t.date), i.asset, t.isin, i.ticker, i.assetType, t.quantity, t.unitPrice, t.totalValue) "
+            + "from Transaction t left join t.instrument i left join DepotSummary s on s.clientId = t.clientId "
+            + "where t.clientId = :clientId")
+    List<TransactionView> findViewsByClientId(String clientId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.tradingapp.data.DepotHolding(t.clientId, sum(t.quantity), sum(t.totalValue)) "
+            + "from Transaction t where t.isin = :isin group by t.clientId order by sum(t.totalValue) desc")
+    List<DepotHolding> findHoldingsByIsin(String isin);
+}
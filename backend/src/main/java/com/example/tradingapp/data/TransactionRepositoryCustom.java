@@ -0,0 +1,30 @@
+package com.example.tradingapp.data;
+
+import com.example.tradingapp.model.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diff-based replacement of current positions, implemented with JDBC in
+ * {@link TransactionRepositoryImpl}.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Makes the given positions the current positions of each depot, writing
+     * only the rows that differ. Positions must be linked to their instrument;
+     * their ids are set to the ids of the rows they are stored in.
+     */
+    PositionDiff mergePositions(Map<String, List<Transaction>> positionsByDepot);
+
+    default PositionDiff mergePositions(String depot, List<Transaction> positions) {
+        return mergePositions(Map.of(depot, positions));
+    }
+
+    /**
+     * Rows written by a merge; unchanged rows were left as they are.
+     */
+    record PositionDiff(int inserted, int updated, int deleted, int unchanged) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.tradingapp.data;
+
+import com.example.tradingapp.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Replaces positions by diffing them against the stored rows instead of
+ * deleting and re-inserting every row of a depot.
+ *
+ * The current rows of the depots are read (and locked) in one query into
+ * parallel arrays, indexed by depot and ISIN; rows without an ISIN are keyed
+ * by their instrument. A parsed position takes over the id of a stored row
+ * with the same key, in id order when a key occurs more than once. Rows that
+ * changed and new positions are written with one batched MERGE, stored rows
+ * left without a position are deleted in one batch, and identical rows are
+ * not written at all. The date is not compared: every position carries the
+ * statement date, which readers take from the depot's summary instead, so a
+ * new month's statement does not rewrite the positions that did not move.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    // allocationSize of transactions_seq: each sequence value is the top of a block of ids
+    static final int ID_BLOCK = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long nextId;
+    private long lastId = -1;
+
+    @Override
+    @Transactional
+    public PositionDiff mergePositions(Map<String, List<Transaction>> positionsByDepot) {
+        if (positionsByDepot.isEmpty()) {
+            return new PositionDiff(0, 0, 0, 0);
+        }
+        StoredRows stored = load(positionsByDepot.keySet());
+
+        List<Transaction> upserts = new ArrayList<>();
+        List<String> upsertDepots = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (Map.Entry<String, List<Transaction>> depot : positionsByDepot.entrySet()) {
+            for (Transaction position : depot.getValue()) {
+                int row = stored.take(depot.getKey(), key(position.getIsin(), instrumentId(position)));
+                if (row < 0) {
+                    position.setId(nextId());
+                    inserted++;
+                } else {
+                    position.setId(stored.id[row]);
+                    if (stored.matches(row, position)) {
+                        unchanged++;
+                        continue;
+                    }
+                    updated++;
+                }
+                upserts.add(position);
+                upsertDepots.add(depot.getKey());
+            }
+        }
+        List<Long> deletes = stored.untaken();
+
+        List<Integer> indexes = new ArrayList<>(upserts.size());
+        for (int i = 0; i < upserts.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate("merge into transactions (id, client_id, transaction_id, date, isin, instrument_id, "
+                        + "quantity, unit_price, total_value) key (id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                indexes, 1000, (ps, i) -> {
+                    Transaction position = upserts.get(i);
+                    ps.setLong(1, position.getId());
+                    ps.setString(2, upsertDepots.get(i));
+                    ps.setString(3, position.getTransactionId());
+                    ps.setString(4, position.getDate());
+                    ps.setString(5, position.getIsin());
+                    Long instrumentId = instrumentId(position);
+                    if (instrumentId == null) {
+                        ps.setNull(6, Types.BIGINT);
+                    } else {
+                        ps.setLong(6, instrumentId);
+                    }
+                    ps.setDouble(7, position.getQuantity());
+                    ps.setDouble(8, position.getUnitPrice());
+                    ps.setDouble(9, position.getTotalValue());
+                });
+        jdbcTemplate.batchUpdate("delete from transactions where id = ?", deletes, 1000,
+                (ps, id) -> ps.setLong(1, id));
+
+        PositionDiff diff = new PositionDiff(inserted, updated, deletes.size(), unchanged);
+        System.out.println("Merged positions of " + (positionsByDepot.size() == 1
+                ? "depot " + positionsByDepot.keySet().iterator().next() : positionsByDepot.size() + " depots")
+                + ": " + diff.inserted() + " inserted, " + diff.updated() + " updated, " + diff.deleted()
+                + " deleted, " + diff.unchanged() + " unchanged");
+        return diff;
+    }
+
+    private StoredRows load(Collection<String> depots) {
+        StoredRows stored = new StoredRows();
+        String placeholders = String.join(", ", Collections.nCopies(depots.size(), "?"));
+        jdbcTemplate.query("select id, client_id, transaction_id, isin, instrument_id, quantity, unit_price, "
+                + "total_value from transactions where client_id in (" + placeholders + ") order by client_id, id for update",
+                rs -> {
+                    long instrumentId = rs.getLong(5);
+                    stored.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.wasNull() ? null : instrumentId, rs.getDouble(6), rs.getDouble(7), rs.getDouble(8));
+                }, depots.toArray());
+        return stored;
+    }
+
+    /**
+     * Next transaction id from a block of the sequence, the way Hibernate's pooled
+     * optimizer hands them out, so these and JPA inserts never collide. A block is
+     * only used once the sequence is past its first block.
+     */
+    private synchronized long nextId() {
+        if (nextId > lastId) {
+            long top;
+            do {
+                top = jdbcTemplate.queryForObject("select next value for transactions_seq", Long.class);
+            } while (top < ID_BLOCK);
+            nextId = top - ID_BLOCK + 1;
+            lastId = top;
+        }
+        return nextId++;
+    }
+
+    private static Long instrumentId(Transaction position) {
+        return position.getInstrument() == null ? null : position.getInstrument().getId();
+    }
+
+    private static String key(String isin, Long instrumentId) {
+        if (isin != null && !isin.isEmpty()) {
+            return isin;
+        }
+        return instrumentId == null ? "" : "instrument:" + instrumentId;
+    }
+
+    /**
+     * Stored rows in parallel arrays. {@code heads} maps depot and key to the first
+     * row not yet taken, and {@code next} chains the rows of a key in id order.
+     */
+    private static final class StoredRows {
+        private final Map<String, Integer> heads = new HashMap<>();
+        private final Map<String, Integer> tails = new HashMap<>();
+        private long[] id = new long[16];
+        private String[] transactionId = new String[16];
+        private String[] isin = new String[16];
+        private Long[] instrumentId = new Long[16];
+        private double[] quantity = new double[16];
+        private double[] unitPrice = new double[16];
+        private double[] totalValue = new double[16];
+        private int[] next = new int[16];
+        private boolean[] taken = new boolean[16];
+        private int size;
+
+        void add(long id, String depot, String transactionId, String isin, Long instrumentId,
+                 double quantity, double unitPrice, double totalValue) {
+            if (size == this.id.length) {
+                int capacity = size * 2;
+                this.id = Arrays.copyOf(this.id, capacity);
+                this.transactionId = Arrays.copyOf(this.transactionId, capacity);
+                this.isin = Arrays.copyOf(this.isin, capacity);
+                this.instrumentId = Arrays.copyOf(this.instrumentId, capacity);
+                this.quantity = Arrays.copyOf(this.quantity, capacity);
+                this.unitPrice = Arrays.copyOf(this.unitPrice, capacity);
+                this.totalValue = Arrays.copyOf(this.totalValue, capacity);
+                this.next = Arrays.copyOf(this.next, capacity);
+                this.taken = Arrays.copyOf(this.taken, capacity);
+            }
+            int row = size++;
+            this.id[row] = id;
+            this.transactionId[row] = transactionId;
+            this.isin[row] = isin;
+            this.instrumentId[row] = instrumentId;
+            this.quantity[row] = quantity;
+            this.unitPrice[row] = unitPrice;
+            this.totalValue[row] = totalValue;
+            this.next[row] = -1;
+            String key = depot + '\t' + key(isin, instrumentId);
+            Integer tail = tails.put(key, row);
+            if (tail == null) {
+                heads.put(key, row);
+            } else {
+                next[tail] = row;
+            }
+        }
+
+        /**
+         * Takes the first untaken row of the depot with the key, or returns -1.
+         */
+        int take(String depot, String key) {
+            String mapKey = depot + '\t' + key;
+            Integer row = heads.get(mapKey);
+            if (row == null) {
+                return -1;
+            }
+            if (next[row] < 0) {
+                heads.remove(mapKey);
+            } else {
+                heads.put(mapKey, next[row]);
+            }
+            taken[row] = true;
+            return row;
+        }
+
+        boolean matches(int row, Transaction position) {
+            return Objects.equals(transactionId[row], position.getTransactionId())
+                    && Objects.equals(isin[row], position.getIsin())
+                    && Objects.equals(instrumentId[row], instrumentId(position))
+                    && Double.compare(quantity[row], position.getQuantity()) == 0
+                    && Double.compare(unitPrice[row], position.getUnitPrice()) == 0
+                    && Double.compare(totalValue[row], position.getTotalValue()) == 0;
+        }
+
+        List<Long> untaken() {
+            List<Long> ids = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (!taken[row]) {
+                    ids.add(id[row]);
+                }
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.tradingapp.data;
+
+/**
+ * Read-only projection of a transaction row, serialized with the same field names as the entity.
+ */
+public record TransactionView(Long id, String clientId, String transactionId, String date, String asset,
+                              String isin, String ticker, String assetType,
+                              double quantity, double unitPrice, double totalValue) {
+}
@@ -0,0 +1,105 @@
+package com.example.tradingapp.model;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totals of a depot's current positions, computed when its latest statement is
+ * ingested: position count, total value and value per asset type. The figures
+ * the statement states in its own summary are kept next to them, and
+ * {@code alert} describes where they disagree (null when they agree or the
+ * statement has no summary).
+ */
+@Entity
+@Table(name = "depot_summaries")
+public class DepotSummary {
+    @Id
+    private String clientId;
+    private String statementDate;
+    private int positionCount;
+    private double totalValue;
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "depot_summary_asset_types", joinColumns = @JoinColumn(name = "client_id"))
+    @MapKeyColumn(name = "asset_type")
+    @Column(name = "total_value")
+    private Map<String, Double> assetTypeValues = new HashMap<>();
+    private Integer statedPositionCount;
+    private Double statedTotalValue;
+    @Column(length = 1000)
+    private String alert;
+
+    // Getters and Setters
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getStatementDate() {
+        return statementDate;
+    }
+
+    public void setStatementDate(String statementDate) {
+        this.statementDate = statementDate;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public void setPositionCount(int positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(double totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public Map<String, Double> getAssetTypeValues() {
+        return assetTypeValues;
+    }
+
+    public void setAssetTypeValues(Map<String, Double> assetTypeValues) {
+        this.assetTypeValues = assetTypeValues;
+    }
+
+    public Integer getStatedPositionCount() {
+        return statedPositionCount;
+    }
+
+    public void setStatedPositionCount(Integer statedPositionCount) {
+        this.statedPositionCount = statedPositionCount;
+    }
+
+    public Double getStatedTotalValue() {
+        return statedTotalValue;
+    }
+
+    public void setStatedTotalValue(Double statedTotalValue) {
+        this.statedTotalValue = statedTotalValue;
+    }
+
+    public String getAlert() {
+        return alert;
+    }
+
+    public void setAlert(String alert) {
+        this.alert = alert;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tradingapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A security held in depots, stored once and referenced by transactions.
+ * Identified by its ISIN; positions without an ISIN get an instrument per
+ * asset name with a null ISIN.
+ */
+@Entity
+@Table(name = "instruments",
+        uniqueConstraints = @UniqueConstraint(name = "ux_instruments_isin", columnNames = "isin"))
+public class Instrument {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String isin;
+    private String asset;
+    private String ticker;
+    private String assetType;
+
+    public Instrument() {
+    }
+
+    public Instrument(Long id, String isin, String asset, String ticker, String assetType) {
+        this.id = id;
+        this.isin = isin;
+        this.asset = asset;
+        this.ticker = ticker;
+        this.assetType = assetType;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getIsin() {
+        return isin;
+    }
+
+    public void setIsin(String isin) {
+        this.isin = isin;
+    }
+
+    public String getAsset() {
+        return asset;
+    }
+
+    public void setAsset(String asset) {
+        this.asset = asset;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public String getAssetType() {
+        return assetType;
+    }
+
+    public void setAssetType(String assetType) {
+        this.assetType = assetType;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.tradingapp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A depot statement after parsing and before it is persisted:
+ * the depot, the statement date and the positions found in it, plus the
+ * position count and total value the statement states in its summary section.
+ */
+public class ParsedStatement {
+    static final int MAX_ISSUES = 100;
+
+    private String depot = "";
+    private String statementDate = "";
+    private final List<Transaction> positions = new ArrayList<>();
+    private final List<String> issues = new ArrayList<>();
+    private int issueCount;
+    private Integer statedPositionCount;
+    private Double statedTotalValue;
+
+    public ParsedStatement() {
+    }
+
+    public ParsedStatement(String depot, String statementDate) {
+        this.depot = depot;
+        this.statementDate = statementDate;
+    }
+
+    public void addPosition(Transaction position) {
+        positions.add(position);
+    }
+
+    /**
+     * Records a part of the statement that could not be parsed and was skipped.
+     * Only the first {@value #MAX_ISSUES} are kept; returns false once they are
+     * only counted.
+     */
+    public boolean addIssue(String issue) {
+        issueCount++;
+        if (issues.size() >= MAX_ISSUES) {
+            return false;
+        }
+        issues.add(issue);
+        return true;
+    }
+
+    // Getters and Setters
+    public String getDepot() {
+        return depot;
+    }
+
+    public void setDepot(String depot) {
+        this.depot = depot;
+    }
+
+    public String getStatementDate() {
+        return statementDate;
+    }
+
+    public void setStatementDate(String statementDate) {
+        this.statementDate = statementDate;
+    }
+
+    public List<Transaction> getPositions() {
+        return positions;
+    }
+
+    public List<String> getIssues() {
+        return issues;
+    }
+
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    /**
+     * "Anzahl Positionen" of the statement's summary, or null when it has none.
+     */
+    public Integer getStatedPositionCount() {
+        return statedPositionCount;
+    }
+
+    public void setStatedPositionCount(Integer statedPositionCount) {
+        this.statedPositionCount = statedPositionCount;
+    }
+
+    /**
+     * "Gesamtwert" of the statement's summary, or null when it has none.
+     */
+    public Double getStatedTotalValue() {
+        return statedTotalValue;
+    }
+
+    public void setStatedTotalValue(Double statedTotalValue) {
+        this.statedTotalValue = statedTotalValue;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tradingapp.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One ingested statement of a depot, keyed by (clientId, statementDate).
+ * The positions are kept as a compact binary payload; the positions of the
+ * snapshot flagged as latest are also materialized in the transactions table.
+ */
+@Entity
+@Table(name = "statement_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "ux_statement_snapshots_client_date", columnNames = {"clientId", "statementDate"}),
+        indexes = @Index(name = "idx_statement_snapshots_client_latest", columnList = "clientId, latest"))
+public class StatementSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String clientId;
+    private String statementDate;
+    private LocalDate statementDay;
+    private int version;
+    private boolean latest;
+    private int positionCount;
+    private double totalValue;
+    private LocalDateTime ingestedAt;
+    @Lob
+    @JsonIgnore
+    private byte[] payload;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getStatementDate() {
+        return statementDate;
+    }
+
+    public void setStatementDate(String statementDate) {
+        this.statementDate = statementDate;
+    }
+
+    public LocalDate getStatementDay() {
+        return statementDay;
+    }
+
+    public void setStatementDay(LocalDate statementDay) {
+        this.statementDay = statementDay;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public boolean isLatest() {
+        return latest;
+    }
+
+    public void setLatest(boolean latest) {
+        this.latest = latest;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public void setPositionCount(int positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(double totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public LocalDateTime getIngestedAt() {
+        return ingestedAt;
+    }
+
+    public void setIngestedAt(LocalDateTime ingestedAt) {
+        this.ingestedAt = ingestedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
@@ -1,21 +1,48 @@
 package com.example.tradingapp.model;
 
+import com.example.tradingapp.service.InstrumentListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
+/**
+ * A position of a depot. Asset name, ticker and asset type belong to the
+ * {@link Instrument}; on a new or parsed transaction they are held in transient
+ * fields until {@link InstrumentListener} links the instrument before insert.
+ */
 @Entity
-@Table(name = "transactions")
+@EntityListeners(InstrumentListener.class)
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_client_id", columnList = "clientId"),
+        @Index(name = "idx_transactions_isin_client", columnList = "isin, clientId")
+})
 public class Transaction {
+    // A pooled sequence instead of IDENTITY lets Hibernate batch the inserts of a statement
     @Id
-    @jakarta.persistence.GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @jakarta.persistence.GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     private String clientId;
     private String transactionId;
     private String date;
-    private String asset;
     private String isin;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instrument_id", foreignKey = @ForeignKey(name = "fk_transactions_instrument"))
+    private Instrument instrument;
+    @Transient
+    private String asset;
+    @Transient
     private String ticker;
+    @Transient
     private String assetType;
     private double quantity;
     private double unitPrice;
@@ -55,7 +82,7 @@ public class Transaction {
     }
 
     public String getAsset() {
-        return asset;
+        return asset == null && instrument != null ? instrument.getAsset() : asset;
     }
 
     public void setAsset(String asset) {
@@ -95,7 +122,7 @@ public class Transaction {
     }
 
     public String getAssetType() {
-        return assetType;
+        return assetType == null && instrument != null ? instrument.getAssetType() : assetType;
     }
 
     public void setAssetType(String assetType) {
@@ -103,10 +130,27 @@ public class Transaction {
     }
 
     public String getTicker() {
-        return ticker;
+        return ticker == null && instrument != null ? instrument.getTicker() : ticker;
     }
 
     public void setTicker(String ticker) {
         this.ticker = ticker;
     }
-}
\ No newline at end of file
+
+    @JsonIgnore
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    /**
+     * Links the instrument and takes over its name, ticker and type instances.
+     */
+    public void setInstrument(Instrument instrument) {
+        this.instrument = instrument;
+        if (instrument != null) {
+            this.asset = instrument.getAsset();
+            this.ticker = instrument.getTicker();
+            this.assetType = instrument.getAssetType();
+        }
+    }
+}
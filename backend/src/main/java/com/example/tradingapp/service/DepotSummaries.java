@@ -0,0 +1,66 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.model.DepotSummary;
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Computes the {@link DepotSummary} of a parsed statement and cross-checks it
+ * against the statement's own summary section.
+ */
+@Component
+public class DepotSummaries {
+
+    // Positions without an asset type, as the frontend shows them
+    static final String DEFAULT_ASSET_TYPE = "Security";
+
+    /**
+     * Summarizes the positions of the statement. A position count or total value
+     * that disagrees with the stated one is added to the statement's issues as
+     * a parse-quality alert and recorded on the summary.
+     *
+     * The stated total is the sum of unrounded values, while each position
+     * value is rounded to the cent, so the two may differ by half a cent per
+     * position plus the rounding of the total itself.
+     */
+    public DepotSummary summarize(ParsedStatement statement) {
+        DepotSummary summary = new DepotSummary();
+        summary.setClientId(statement.getDepot());
+        summary.setStatementDate(statement.getStatementDate());
+        double totalValue = 0;
+        for (Transaction position : statement.getPositions()) {
+            totalValue += position.getTotalValue();
+            String assetType = position.getAssetType() == null || position.getAssetType().isEmpty()
+                    ? DEFAULT_ASSET_TYPE : position.getAssetType();
+            summary.getAssetTypeValues().merge(assetType, position.getTotalValue(), Double::sum);
+        }
+        int positionCount = statement.getPositions().size();
+        summary.setPositionCount(positionCount);
+        summary.setTotalValue(totalValue);
+        summary.setStatedPositionCount(statement.getStatedPositionCount());
+        summary.setStatedTotalValue(statement.getStatedTotalValue());
+
+        List<String> alerts = new ArrayList<>();
+        if (statement.getStatedPositionCount() != null && statement.getStatedPositionCount() != positionCount) {
+            alerts.add("Summary lists " + statement.getStatedPositionCount() + " position(s), parsed " + positionCount);
+        }
+        if (statement.getStatedTotalValue() != null
+                && Math.abs(statement.getStatedTotalValue() - totalValue) > 0.005 * (positionCount + 1) + 1e-6) {
+            alerts.add(String.format(Locale.ROOT, "Summary total %.2f differs from the parsed total %.2f",
+                    statement.getStatedTotalValue(), totalValue));
+        }
+        for (String alert : alerts) {
+            if (statement.addIssue(alert)) {
+                System.err.println("Parse-quality alert for depot " + statement.getDepot() + " ("
+                        + statement.getStatementDate() + "): " + alert);
+            }
+        }
+        summary.setAlert(alerts.isEmpty() ? null : String.join("; ", alerts));
+        return summary;
+    }
+}
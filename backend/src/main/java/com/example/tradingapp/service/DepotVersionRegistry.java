@@ -0,0 +1,55 @@
+package com.example.tradingapp.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-depot version stamps used as ETag / Last-Modified validators.
+ *
+ * A depot only changes when a statement is ingested, so its stamp is bumped
+ * after every committed ingestion and read endpoints can answer conditional
+ * requests without touching the database. Stamps live in memory and include
+ * the process start time, so a restart invalidates every cached response once.
+ */
+@Component
+public class DepotVersionRegistry {
+
+    private final long bootTime = System.currentTimeMillis();
+    private final String bootId = Long.toString(bootTime, 36);
+    private final Map<String, DepotVersion> versions = new ConcurrentHashMap<>();
+    // Depots not ingested since startup share this stamp, so reads of unknown depots add no entries
+    private final DepotVersion initial = new DepotVersion(bootId, 0, bootTime);
+
+    public DepotVersion current(String depot) {
+        return versions.getOrDefault(depot, initial);
+    }
+
+    public void bump(String depot) {
+        versions.compute(depot, (d, previous) -> new DepotVersion(bootId,
+                previous == null ? 1 : previous.counter() + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Runs after the in-memory position copies have swapped the depot, so a request
+     * seeing the new version never reads the old positions.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStatementIngested(StatementIngestedEvent event) {
+        bump(event.depot());
+    }
+
+    /**
+     * Version of a depot's data; {@code lastModified} is in epoch milliseconds.
+     */
+    public record DepotVersion(String bootId, long counter, long lastModified) {
+        public String etag() {
+            return "\"" + bootId + "-" + counter + "\"";
+        }
+    }
+}
@@ -1,25 +1,37 @@
 package com.example.tradingapp.service;
 
 import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
 import com.example.tradingapp.data.TransactionRepository;
 import com.example.tradingapp.model.Client;
+import com.example.tradingapp.model.DepotSummary;
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.StatementSnapshot;
 import com.example.tradingapp.model.Transaction;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.io.RandomAccessReadBuffer;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.jsoup.Jsoup;
+import com.example.tradingapp.service.diagnostics.SlowUploadLog;
+import com.example.tradingapp.service.diagnostics.UploadTrace;
+import com.example.tradingapp.service.extract.DocumentExtractors;
+import com.example.tradingapp.service.journal.IngestionJournal;
+import com.example.tradingapp.service.journal.StatementCodec;
+import com.example.tradingapp.service.parser.StatementParserRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class FileProcessingService {
@@ -30,73 +42,110 @@ public class FileProcessingService {
     @Autowired
     private TransactionRepository transactionRepository;
 
-    private String lastProcessedDepot = "1"; // Default
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
 
-    public String processFile(MultipartFile file) throws IOException {
-        String content = extractContent(file);
-        parseAndSave(content);
-        return lastProcessedDepot;
-    }
+    @Autowired
+    private DepotSummaryRepository depotSummaryRepository;
+
+    @Autowired
+    private IngestionJournal ingestionJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StatementParserRegistry statementParserRegistry;
+
+    @Autowired
+    private InstrumentCache instrumentCache;
+
+    @Autowired
+    private DepotSummaries depotSummaries;
+
+    @Autowired
+    private UploadPolicy uploadPolicy;
+
+    @Autowired
+    private DocumentExtractors documentExtractors;
+
+    @Autowired
+    private SlowUploadLog slowUploadLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    private String extractContent(MultipartFile file) throws IOException {
-        String filename = file.getOriginalFilename();
-        if (filename != null && filename.toLowerCase().endsWith(".pdf")) {
-            RandomAccessReadBuffer buffer = new RandomAccessReadBuffer(file.getInputStream());
-            PDDocument document = Loader.loadPDF(buffer);
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            document.close();
-            return text;
-        } else if (filename != null && filename.toLowerCase().endsWith(".docx")) {
-            // Assume Word document
-            XWPFDocument document = new XWPFDocument(file.getInputStream());
-            XWPFWordExtractor extractor = new XWPFWordExtractor(document);
-            String text = extractor.getText();
-            document.close();
-            return text;
-        } else if (filename != null && filename.toLowerCase().endsWith(".html")) {
-            // Assume HTML file
-            String html = new String(file.getInputStream().readAllBytes());
-            return Jsoup.parse(html).text();
-        } else if (filename != null && filename.toLowerCase().endsWith(".md")) {
-            // Assume Markdown file
-            BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()));
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
+    private static final List<DateTimeFormatter> STATEMENT_DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"), DateTimeFormatter.ISO_LOCAL_DATE);
+
+    /**
+     * Extracts and parses the file and cross-checks it against its own summary,
+     * then journals the parsed statement and replaces the depot's positions and
+     * summary in one transaction. Extraction runs before the transaction begins,
+     * so a large document does not hold a pooled connection while it is read.
+     * Each stage is timed; uploads above the slow-upload threshold are logged,
+     * including the ones that are rejected or fail. Returns the statement, with
+     * the malformed parts that were skipped as its issues.
+     */
+    public ParsedStatement processFile(MultipartFile file) throws IOException {
+        UploadTrace trace = new UploadTrace(file.getOriginalFilename(), file.getSize());
+        String outcome = "failed";
+        try {
+            uploadPolicy.check(file);
+            trace.mark("check");
+            ParsedStatement statement;
+            Path spill = uploadPolicy.spill(file);
+            trace.mark("spill");
+            try (Reader content = documentExtractors.open(file, spill)) {
+                trace.mark("extract");
+                statement = statementParserRegistry.parse(content);
+                trace.mark("parse");
+            } finally {
+                if (spill != null) {
+                    Files.deleteIfExists(spill);
+                }
             }
-            return content.toString();
-        } else {
-            // Assume text file
-            BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()));
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
+            DepotSummary summary = depotSummaries.summarize(statement);
+            trace.statement(statement);
+            trace.mark("summary");
+            for (Transaction position : statement.getPositions()) {
+                instrumentCache.intern(position);
             }
-            return content.toString();
+            trace.mark("intern");
+            outcome = "rolled back";
+            transactionTemplate.executeWithoutResult(status -> {
+                ingestionJournal.appendInTransaction(statement);
+                trace.mark("journal");
+                saveStatement(statement, summary, trace);
+                // Client, snapshot and summary changes are only sent at flush; time them here rather than inside the commit
+                transactionRepository.flush();
+                trace.mark("flush");
+            });
+            // The commit and the after-commit listeners
+            trace.mark("commit");
+            outcome = "committed";
+            return statement;
+        } finally {
+            slowUploadLog.finish(trace, outcome);
         }
     }
 
-    private void parseAndSave(String content) {
-        System.out.println("Extracted content: " + content);
-        String[] lines = content.split("\n");
-        
-        // Extract depot and date
-        String depot = "";
-        String statementDate = "";
-        for (String line : lines) {
-            line = line.trim();
-            if (line.contains("**Depot:**")) {
-                depot = line.replace("**Depot:**", "").trim();
-            } else if (line.contains("**Datum:**")) {
-                statementDate = line.replace("**Datum:**", "").trim();
-            }
+    /**
+     * Rebuilds the transactions of every journaled depot from its latest statement.
+     */
+    @Transactional
+    public int rebuildFromJournal() {
+        List<ParsedStatement> statements = ingestionJournal.readLatestStatements();
+        for (ParsedStatement statement : statements) {
+            saveStatement(statement, depotSummaries.summarize(statement), new UploadTrace("journal", 0));
         }
-        
-        System.out.println("Parsed depot: " + depot + ", date: " + statementDate);
-        
+        System.out.println("Rebuilt " + statements.size() + " depot(s) from the ingestion journal");
+        return statements.size();
+    }
+
+    private void saveStatement(ParsedStatement statement, DepotSummary summary, UploadTrace trace) {
+        String depot = statement.getDepot();
+
         // Update or create client
         Client client = clientRepository.findById(depot).orElse(new Client());
         client.setId(depot);
@@ -105,280 +154,79 @@ public class FileProcessingService {
         client.setBirthDate("2000-01-01");
         client.setDepot(depot);
         clientRepository.save(client);
-        lastProcessedDepot = depot;
         System.out.println("Saved/Updated client: " + depot);
-        
-        // Detect format and parse accordingly
-        boolean isTableFormat = false;
-        for (String line : lines) {
-            if (line.contains("| STK. / Nominale |")) {
-                isTableFormat = true;
-                break;
-            }
-        }
-        
-        System.out.println("Detected table format: " + isTableFormat);
-        
-        if (isTableFormat) {
-            parseTableFormat(lines, depot, statementDate);
-        } else {
-            parseLineFormat(lines, depot, statementDate);
-        }
-    }    private void parseTableFormat(String[] lines, String depot, String statementDate) {
-        // Clear old transactions
-        List<Transaction> oldTransactions = transactionRepository.findByClientId(depot);
-        for (Transaction t : oldTransactions) {
-            transactionRepository.delete(t);
-        }
-        
-        // Process the lines - handle concatenated rows with "||"
-        boolean inTable = false;
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("| STK. / Nominale |")) {
-                inTable = true;
-                continue;
-            }
-            if (inTable && line.startsWith("|") && !line.startsWith("|---") && !line.contains("STK. / Nominale")) {
-                // If the line contains "||", split into separate rows
-                if (line.contains("||")) {
-                    String[] subRows = line.split("\\|\\|");
-                    for (String subRow : subRows) {
-                        String trimmed = subRow.trim();
-                        if (!trimmed.isEmpty()) {
-                            if (!trimmed.startsWith("|")) {
-                                trimmed = "|" + trimmed;
-                            }
-                            processTableRow(trimmed, depot, statementDate);
-                        }
-                    }
-                } else {
-                    processTableRow(line, depot, statementDate);
-                }
-            }
-            if (line.isEmpty() && inTable) {
-                inTable = false;
-            }
+        trace.mark("client");
+
+        boolean latest = recordSnapshot(statement);
+        trace.mark("snapshot");
+        if (!latest) {
+            System.out.println("Stored historical statement " + statement.getStatementDate() + " for depot " + depot + ", current positions unchanged");
+            eventPublisher.publishEvent(new StatementIngestedEvent(depot, statement.getPositions(), false));
+            return;
         }
-    }
-    
-    private void processTableRow(String rowLine, String depot, String statementDate) {
-        System.out.println("Processing row: " + rowLine);
-        String[] parts = rowLine.split("\\|");
-        if (parts.length >= 8) {
-            // Integration test format: | Quantity | Asset | ISIN | Symbol | Type | Price | Value |
-            String quantityStr = parts[1].trim();
-            String nameStr = parts[2].trim().replace("<br>", " ").replace("\n", " ");
-            String isinStr = parts[3].trim();
-            String tickerStr = parts[4].trim();
-            String assetTypeStr = parts[5].trim();
-            String priceStr = parts[6].trim();
-            String valueStr = parts[7].trim();
-            
-            // Extract ISIN and asset from the parts
-            String isin = isinStr;
-            String asset = nameStr;
-            String assetType = detectAssetType(asset);
-            
-            // Handle legacy format with ISIN embedded in name (for backward compatibility)
-            if (isin.isEmpty() && nameStr.contains("ISIN: ")) {
-                String[] nameParts = nameStr.split("ISIN: ");
-                asset = nameParts[0].trim();
-                if (nameParts.length > 1) {
-                    String isinAndType = nameParts[1];
-                    String[] isinParts = isinAndType.split(" ");
-                    isin = isinParts[0].trim();
-                }
-            }
-            
-            System.out.println("Quantity: " + quantityStr + ", Asset: " + asset + ", Ticker: " + tickerStr + ", ISIN: " + isin + ", Type: " + assetType + ", Price: " + priceStr + ", Value: " + valueStr);
-            
-            try {
-                double quantity = parseGermanNumber(quantityStr);
-                double unitPrice = parseGermanNumber(priceStr);
-                double totalValue = parseGermanNumber(valueStr);
-                
-                Transaction transaction = new Transaction();
-                // Don't set ID - let JPA generate it automatically
-                transaction.setClientId(depot);
-                transaction.setTransactionId(isin);
-                transaction.setDate(statementDate);
-                transaction.setAsset(asset);
-                transaction.setIsin(isin);
-                transaction.setTicker(tickerStr);
-                transaction.setAssetType(assetType);
-                transaction.setQuantity(quantity);
-                transaction.setUnitPrice(unitPrice);
-                transaction.setTotalValue(totalValue);
-                transactionRepository.save(transaction);
-                System.out.println("Saved transaction: " + asset + " - " + quantity);
-            } catch (NumberFormatException e) {
-                System.err.println("Error parsing table row: " + rowLine + " - Error: " + e.getMessage());
-            }
-        } else if (parts.length >= 7) {
-            // Legacy format: | Quantity | Asset with ISIN | Ticker | Price | Date | Value |
-            String quantityStr = parts[1].trim();
-            String nameStr = parts[2].trim().replace("<br>", " ").replace("\n", " ");
-            String tickerStr = parts[3].trim();
-            String priceStr = parts[4].trim();
-            String dateStr = parts[5].trim();
-            String valueStr = parts[6].trim();
-            
-            // Extract ISIN and asset type from name
-            String isin = "";
-            String assetType = "";
-            String[] nameParts = nameStr.split("ISIN: ");
-            String asset = nameParts[0].trim();
-            
-            if (nameParts.length > 1) {
-                String isinAndType = nameParts[1];
-                String[] isinParts = isinAndType.split(" ");
-                isin = isinParts[0].trim();
-                
-                // Detect asset type from asset name and description
-                assetType = detectAssetType(asset);
-            }
-            
-            System.out.println("Legacy format - Quantity: " + quantityStr + ", Asset: " + asset + ", Ticker: " + tickerStr + ", ISIN: " + isin + ", Type: " + assetType + ", Price: " + priceStr + ", Value: " + valueStr);
-            
-            try {
-                double quantity = parseGermanNumber(quantityStr);
-                double unitPrice = parseGermanNumber(priceStr);
-                double totalValue = parseGermanNumber(valueStr);
-                
-                Transaction transaction = new Transaction();
-                // Don't set ID - let JPA generate it automatically
-                transaction.setClientId(depot);
-                transaction.setTransactionId(isin);
-                transaction.setDate(statementDate);
-                transaction.setAsset(asset);
-                transaction.setIsin(isin);
-                transaction.setTicker(tickerStr);
-                transaction.setAssetType(assetType);
-                transaction.setQuantity(quantity);
-                transaction.setUnitPrice(unitPrice);
-                transaction.setTotalValue(totalValue);
-                transactionRepository.save(transaction);
-                System.out.println("Saved transaction: " + asset + " - " + quantity);
-            } catch (NumberFormatException e) {
-                System.err.println("Error parsing table row: " + rowLine + " - Error: " + e.getMessage());
-            }
-        } else {
-            System.out.println("Skipping row with insufficient columns: " + rowLine + " (parts: " + parts.length + ")");
+
+        // Replace the current positions, writing only the rows that differ
+        for (Transaction position : statement.getPositions()) {
+            instrumentCache.resolve(position);
         }
+        transactionRepository.mergePositions(depot, statement.getPositions());
+        trace.mark("merge");
+        depotSummaryRepository.save(summary);
+        eventPublisher.publishEvent(new StatementIngestedEvent(depot, statement.getPositions(), true));
     }
-    
-    private String detectAssetType(String assetName) {
-        String name = assetName.toLowerCase();
-        
-        if (name.contains("etf")) {
-            return "ETF";
-        } else if (name.contains("aktie") || name.contains("stock") || name.contains("shares") || name.contains("inc.") || name.contains("ag") || name.contains("plc") || name.contains("adr")) {
-            return "Stock";
-        } else if (name.contains("gold")) {
-            return "Commodity";
-        } else if (name.contains("trust")) {
-            return "Trust";
-        } else if (name.contains("corp")) {
-            return "Corporation";
-        } else {
-            return "Security";
+
+    /**
+     * Stores the statement as a versioned snapshot keyed by depot and statement date,
+     * replacing an earlier upload of the same date. Returns true when the statement
+     * is now the depot's latest one and its positions should become current.
+     */
+    private boolean recordSnapshot(ParsedStatement statement) {
+        String depot = statement.getDepot();
+        StatementSnapshot snapshot = statementSnapshotRepository
+                .findByClientIdAndStatementDate(depot, statement.getStatementDate())
+                .orElseGet(StatementSnapshot::new);
+        Optional<StatementSnapshot> latest = statementSnapshotRepository.findByClientIdAndLatestTrue(depot);
+        LocalDate statementDay = parseStatementDay(statement.getStatementDate());
+
+        boolean isLatest = latest.isEmpty()
+                || latest.get().getId().equals(snapshot.getId())
+                || statementDay == null
+                || latest.get().getStatementDay() == null
+                || !statementDay.isBefore(latest.get().getStatementDay());
+        if (isLatest && latest.isPresent() && !latest.get().getId().equals(snapshot.getId())) {
+            latest.get().setLatest(false);
+            statementSnapshotRepository.save(latest.get());
         }
-    }
-    
-    private double parseGermanNumber(String numberStr) {
-        // Smart number parser that handles both US and German formats
-        // German format: 1.234,56 (dot for thousands, comma for decimal)
-        // US format: 1,234.56 (comma for thousands, dot for decimal)
-        
-        String cleaned = numberStr.trim();
-        
-        // Count dots and commas to determine format
-        long dotCount = cleaned.chars().filter(ch -> ch == '.').count();
-        long commaCount = cleaned.chars().filter(ch -> ch == ',').count();
-        
-        if (commaCount > 0 && dotCount > 0) {
-            // Mixed: determine which is decimal separator
-            int lastDotPos = cleaned.lastIndexOf('.');
-            int lastCommaPos = cleaned.lastIndexOf(',');
-            
-            if (lastCommaPos > lastDotPos) {
-                // German format: 1.234,56
-                cleaned = cleaned.replace(".", "").replace(",", ".");
-            } else {
-                // US format: 1,234.56
-                cleaned = cleaned.replace(",", "");
-            }
-        } else if (commaCount > 0) {
-            // Only commas: German decimal format (123,45)
-            cleaned = cleaned.replace(",", ".");
+
+        double totalValue = 0;
+        for (Transaction position : statement.getPositions()) {
+            totalValue += position.getTotalValue();
         }
-        // If only dots or no separators, treat as US format (already correct)
-        
-        return Double.parseDouble(cleaned);
+        snapshot.setClientId(depot);
+        snapshot.setStatementDate(statement.getStatementDate());
+        snapshot.setStatementDay(statementDay);
+        snapshot.setVersion(statementSnapshotRepository.findMaxVersion(depot) + 1);
+        snapshot.setLatest(isLatest);
+        snapshot.setPositionCount(statement.getPositions().size());
+        snapshot.setTotalValue(totalValue);
+        snapshot.setIngestedAt(LocalDateTime.now());
+        snapshot.setPayload(StatementCodec.encode(statement));
+        statementSnapshotRepository.save(snapshot);
+        return snapshot.isLatest();
     }
-    
-    private void parseLineFormat(String[] lines, String depot, String statementDate) {
-        // Clear old transactions for this client
-        List<Transaction> oldTransactions = transactionRepository.findByClientId(depot);
-        for (Transaction t : oldTransactions) {
-            transactionRepository.delete(t);
-        }
-        
-        // Parse positions
-        int i = 0;
-        while (i < lines.length) {
-            String line = lines[i].trim();
-            if (line.contains(" Stk. ")) {
-                // Start of position
-                String[] parts = line.split(" Stk. ");
-                double quantity = Double.parseDouble(parts[0].trim().replace(",", "."));
-                String asset = parts[1].trim();
-                
-                // Skip to ISIN
-                i++;
-                while (i < lines.length && !lines[i].trim().startsWith("ISIN:")) {
-                    i++;
-                }
-                String isin = "";
-                if (i < lines.length) {
-                    isin = lines[i].trim().substring(6);
-                    i++;
-                }
-                
-                // Skip Lagerland and Wertpapierrechnung if present
-                while (i < lines.length && (lines[i].trim().startsWith("Lagerland:") || lines[i].trim().contains("Wertpapierrechnung"))) {
-                    i++;
-                }
-                
-                // Price
-                double unitPrice = Double.parseDouble(lines[i].trim().replace(",", "."));
-                i++;
-                
-                // Date (should be statement date)
-                i++;
-                
-                // Total value
-                double totalValue = Double.parseDouble(lines[i].trim().replace(",", "."));
-                i++;
-                
-                // Save transaction
-                Transaction transaction = new Transaction();
-                // Don't set ID - let JPA generate it automatically
-                transaction.setClientId(depot);
-                transaction.setTransactionId(isin);
-                transaction.setDate(statementDate);
-                transaction.setAsset(asset);
-                transaction.setIsin(isin);
-                transaction.setAssetType(detectAssetType(asset));
-                transaction.setQuantity((int) Math.round(quantity));
-                transaction.setUnitPrice(unitPrice);
-                transaction.setTotalValue(totalValue);
-                transactionRepository.save(transaction);
-                System.out.println("Saved transaction: " + asset + " - " + quantity);
-            } else {
-                i++;
+
+    /**
+     * Parses "dd.MM.yyyy" and ISO dates; returns null for anything else so that
+     * statements with unknown dates are ordered by ingestion.
+     */
+    public static LocalDate parseStatementDay(String statementDate) {
+        for (DateTimeFormatter format : STATEMENT_DATE_FORMATS) {
+            try {
+                return LocalDate.parse(statementDate, format);
+            } catch (DateTimeParseException e) {
+                // try next format
             }
         }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.model.Instrument;
+import com.example.tradingapp.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent intern cache of instruments keyed by ISIN (or by asset name when
+ * a position has no ISIN). Parsed positions are interned so that every
+ * position of the same security shares one set of strings, and
+ * {@link InstrumentListener} links every new transaction to its instrument.
+ *
+ * New or renamed instruments are written on the caller's transaction, so an
+ * upload that rolls back leaves the instruments as they were. Until the
+ * transaction commits they are only visible to it; the shared cache is
+ * updated after the commit.
+ */
+@Component
+public class InstrumentCache {
+
+    private static final String NAME_KEY_PREFIX = "name:";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<String, Instrument> instruments = new ConcurrentHashMap<>();
+
+    /**
+     * Links the position to the cached instrument when it describes the same
+     * security the same way, replacing its strings with the cached instances.
+     */
+    public void intern(Transaction position) {
+        String key = key(position);
+        if (key == null) {
+            return;
+        }
+        Instrument cached = lookup(key);
+        if (cached != null && matches(cached, position)) {
+            position.setInstrument(cached);
+        }
+    }
+
+    /**
+     * Links the transaction to its instrument, storing the instrument first when
+     * it is new or described differently.
+     */
+    public void resolve(Transaction transaction) {
+        String key = key(transaction);
+        if (key == null) {
+            return;
+        }
+        Instrument cached = lookup(key);
+        if (cached == null || !matches(cached, transaction)) {
+            cached = store(key, transaction);
+        }
+        transaction.setInstrument(cached);
+    }
+
+    /**
+     * The instrument as seen by the current transaction: its own changes first, then the shared cache.
+     */
+    private Instrument lookup(String key) {
+        Map<String, Instrument> pending = pending(false);
+        Instrument instrument = pending == null ? null : pending.get(key);
+        return instrument != null ? instrument : instruments.get(key);
+    }
+
+    /**
+     * Inserts the instrument or updates its name, ticker and type; the latest upload wins.
+     * The row is only written when it differs, so uploads of known instruments take no row locks.
+     */
+    private Instrument store(String key, Transaction transaction) {
+        String isin = key.startsWith(NAME_KEY_PREFIX) ? null : key;
+        List<Instrument> rows = isin != null
+                ? jdbcTemplate.query("select id, isin, asset, ticker, asset_type from instruments where isin = ?",
+                        (rs, i) -> row(rs), isin)
+                : jdbcTemplate.query("select id, isin, asset, ticker, asset_type from instruments "
+                        + "where isin is null and asset = ? order by id fetch first row only", (rs, i) -> row(rs), transaction.getAsset());
+        Instrument stored = rows.isEmpty() ? null : rows.get(0);
+        Long id;
+        if (stored != null && matches(stored, transaction)) {
+            id = stored.getId();
+        } else if (isin != null) {
+            // Keyed by the unique ISIN, so an upload inserting the same instrument concurrently updates it instead
+            jdbcTemplate.update("merge into instruments (isin, asset, ticker, asset_type) key (isin) values (?, ?, ?, ?)",
+                    isin, transaction.getAsset(), transaction.getTicker(), transaction.getAssetType());
+            id = stored != null ? stored.getId()
+                    : jdbcTemplate.queryForObject("select id from instruments where isin = ?", Long.class, isin);
+        } else if (stored != null) {
+            id = stored.getId();
+            jdbcTemplate.update("update instruments set ticker = ?, asset_type = ? where id = ?",
+                    transaction.getTicker(), transaction.getAssetType(), id);
+        } else {
+            id = insertByName(transaction);
+        }
+        Instrument instrument = new Instrument(id, isin, transaction.getAsset(), transaction.getTicker(), transaction.getAssetType());
+        Map<String, Instrument> pending = pending(true);
+        if (pending != null) {
+            pending.put(key, instrument);
+        } else {
+            instruments.put(key, instrument);
+        }
+        return instrument;
+    }
+
+    private Long insertByName(Transaction transaction) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "insert into instruments (asset, ticker, asset_type) values (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, transaction.getAsset());
+            statement.setString(2, transaction.getTicker());
+            statement.setString(3, transaction.getAssetType());
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    /**
+     * Instruments written by the current transaction, published to the shared cache once it commits.
+     * Null outside a transaction, where writes auto-commit and go to the cache directly.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Instrument> pending(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, Instrument> pending = (Map<String, Instrument>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            Map<String, Instrument> written = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(InstrumentCache.this);
+                    if (status == STATUS_COMMITTED) {
+                        instruments.putAll(written);
+                    }
+                }
+            });
+            pending = written;
+        }
+        return pending;
+    }
+
+    private static Instrument row(ResultSet rs) throws SQLException {
+        return new Instrument(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+    }
+
+    private static String key(Transaction transaction) {
+        String isin = transaction.getIsin();
+        if (isin != null && !isin.isEmpty()) {
+            return isin;
+        }
+        return transaction.getAsset() == null ? null : NAME_KEY_PREFIX + transaction.getAsset();
+    }
+
+    private static boolean matches(Instrument instrument, Transaction transaction) {
+        return Objects.equals(instrument.getAsset(), transaction.getAsset())
+                && Objects.equals(instrument.getTicker(), transaction.getTicker())
+                && Objects.equals(instrument.getAssetType(), transaction.getAssetType());
+    }
+}
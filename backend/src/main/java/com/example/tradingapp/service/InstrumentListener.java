@@ -0,0 +1,25 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.model.Transaction;
+import jakarta.persistence.PrePersist;
+
+/**
+ * JPA listener of {@link Transaction}. Hibernate creates it through Spring,
+ * one instance per entity type, so the cache lives in the shared
+ * {@link InstrumentCache} bean rather than here. The cache is passed to the
+ * constructor because Spring autowires constructors of such beans even when
+ * the context runs from AOT-generated code, which skips field injection.
+ */
+public class InstrumentListener {
+
+    private final InstrumentCache instrumentCache;
+
+    public InstrumentListener(InstrumentCache instrumentCache) {
+        this.instrumentCache = instrumentCache;
+    }
+
+    @PrePersist
+    public void linkInstrument(Transaction transaction) {
+        instrumentCache.resolve(transaction);
+    }
+}
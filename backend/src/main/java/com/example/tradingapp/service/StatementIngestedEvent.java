@@ -0,0 +1,13 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Published when a statement of a depot has been stored. {@code latest} is true
+ * when its positions replaced the depot's current positions, false when it was
+ * only added to the statement history.
+ */
+public record StatementIngestedEvent(String depot, List<Transaction> positions, boolean latest) {
+}
@@ -0,0 +1,84 @@
+package com.example.tradingapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Upload limits per file type and the size above which an upload is spilled
+ * to a temp file, so extraction reads from disk instead of from the heap.
+ */
+@Component
+public class UploadPolicy {
+
+    private final Map<String, DataSize> maxSizes;
+    private final DataSize spillThreshold;
+    private final Path spillDirectory;
+
+    public UploadPolicy(@Value("${tradingapp.upload.max-size.pdf:100MB}") DataSize pdf,
+                        @Value("${tradingapp.upload.max-size.docx:50MB}") DataSize docx,
+                        @Value("${tradingapp.upload.max-size.html:20MB}") DataSize html,
+                        @Value("${tradingapp.upload.max-size.md:512MB}") DataSize md,
+                        @Value("${tradingapp.upload.max-size.txt:512MB}") DataSize txt,
+                        @Value("${tradingapp.upload.spill-threshold:1MB}") DataSize spillThreshold,
+                        @Value("${tradingapp.upload.spill-dir:${java.io.tmpdir}}") String spillDirectory) {
+        this.maxSizes = Map.of("pdf", pdf, "docx", docx, "html", html, "md", md, "txt", txt);
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = Paths.get(spillDirectory);
+    }
+
+    /**
+     * Returns the file type used for extraction and limits; anything unknown is treated as text.
+     */
+    public static String type(String filename) {
+        if (filename != null) {
+            String lower = filename.toLowerCase();
+            for (String type : new String[]{"pdf", "docx", "html", "md"}) {
+                if (lower.endsWith("." + type)) {
+                    return type;
+                }
+            }
+        }
+        return "txt";
+    }
+
+    /**
+     * Rejects the upload when it exceeds the limit of its file type.
+     */
+    public void check(MultipartFile file) {
+        String type = type(file.getOriginalFilename());
+        DataSize limit = maxSizes.get(type);
+        if (file.getSize() > limit.toBytes()) {
+            throw new IllegalArgumentException("File too large: " + file.getSize() + " bytes exceeds the "
+                    + limit.toMegabytes() + " MB limit for ." + type + " uploads");
+        }
+    }
+
+    /**
+     * Moves an upload above the spill threshold to a temp file and returns its path,
+     * or returns null when the upload is small enough to be read from memory.
+     * The caller deletes the file.
+     */
+    public Path spill(MultipartFile file) throws IOException {
+        if (file.getSize() <= spillThreshold.toBytes()) {
+            return null;
+        }
+        Files.createDirectories(spillDirectory);
+        Path target = Files.createTempFile(spillDirectory, "upload-", "." + type(file.getOriginalFilename()));
+        try {
+            // Disk-backed multipart parts are renamed rather than copied
+            file.transferTo(target.toFile());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return target;
+    }
+}
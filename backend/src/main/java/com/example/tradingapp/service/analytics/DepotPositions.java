@@ -0,0 +1,155 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.data.TransactionView;
+import com.example.tradingapp.service.analytics.PositionSnapshot.Instrument;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import static com.example.tradingapp.service.analytics.PositionSnapshot.*;
+
+/**
+ * The positions of one depot as a read-only view over its records in the
+ * {@link PositionSnapshot}. Jackson and the columnar converter write the
+ * records straight from the buffer in the same shape as a list of
+ * {@link TransactionView}; {@link #get} builds a view only when asked for one.
+ */
+@JsonSerialize(using = DepotPositions.Serializer.class)
+public final class DepotPositions extends AbstractList<TransactionView> implements RandomAccess {
+
+    private final String clientId;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int count;
+    private final Instrument[] instruments;
+    private final String[] strings;
+
+    DepotPositions(String clientId, ByteBuffer buffer, int offset, int count, Instrument[] instruments, String[] strings) {
+        this.clientId = clientId;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.count = count;
+        this.instruments = instruments;
+        this.strings = strings;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public TransactionView get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int base = base(index);
+        Instrument instrument = instrument(base);
+        return new TransactionView(buffer.getLong(base + ID), clientId, string(base + TRANSACTION_ID), string(base + DATE),
+                instrument.asset(), instrument.isin(), instrument.ticker(), instrument.assetType(),
+                buffer.getDouble(base + QUANTITY), buffer.getDouble(base + UNIT_PRICE), buffer.getDouble(base + TOTAL_VALUE));
+    }
+
+    /**
+     * Writes the positions as a JSON array of transaction objects.
+     */
+    public void writeRows(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < count; i++) {
+            int base = base(i);
+            Instrument instrument = instrument(base);
+            generator.writeStartObject();
+            generator.writeNumberField("id", buffer.getLong(base + ID));
+            generator.writeStringField("clientId", clientId);
+            generator.writeStringField("transactionId", string(base + TRANSACTION_ID));
+            generator.writeStringField("date", string(base + DATE));
+            generator.writeStringField("asset", instrument.asset());
+            generator.writeStringField("isin", instrument.isin());
+            generator.writeStringField("ticker", instrument.ticker());
+            generator.writeStringField("assetType", instrument.assetType());
+            generator.writeNumberField("quantity", buffer.getDouble(base + QUANTITY));
+            generator.writeNumberField("unitPrice", buffer.getDouble(base + UNIT_PRICE));
+            generator.writeNumberField("totalValue", buffer.getDouble(base + TOTAL_VALUE));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes the positions in the columnar shape of {@code ColumnarJsonHttpMessageConverter}.
+     */
+    public void writeColumns(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("count", count);
+        generator.writeArrayFieldStart("clientId");
+        for (int i = 0; i < count; i++) {
+            generator.writeString(clientId);
+        }
+        generator.writeEndArray();
+        writeStringColumn(generator, "transactionId", TRANSACTION_ID);
+        writeStringColumn(generator, "date", DATE);
+        writeInstrumentColumn(generator, "asset", Instrument::asset);
+        writeInstrumentColumn(generator, "isin", Instrument::isin);
+        writeInstrumentColumn(generator, "ticker", Instrument::ticker);
+        writeInstrumentColumn(generator, "assetType", Instrument::assetType);
+        writeNumberColumn(generator, "quantity", QUANTITY);
+        writeNumberColumn(generator, "unitPrice", UNIT_PRICE);
+        writeNumberColumn(generator, "totalValue", TOTAL_VALUE);
+        generator.writeEndObject();
+    }
+
+    private void writeStringColumn(JsonGenerator generator, String name, int field) throws IOException {
+        generator.writeArrayFieldStart(name);
+        for (int i = 0; i < count; i++) {
+            generator.writeString(string(base(i) + field));
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeInstrumentColumn(JsonGenerator generator, String name, Function<Instrument, String> getter) throws IOException {
+        generator.writeArrayFieldStart(name);
+        for (int i = 0; i < count; i++) {
+            generator.writeString(getter.apply(instrument(base(i))));
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeNumberColumn(JsonGenerator generator, String name, int field) throws IOException {
+        generator.writeArrayFieldStart(name);
+        for (int i = 0; i < count; i++) {
+            generator.writeNumber(buffer.getDouble(base(i) + field));
+        }
+        generator.writeEndArray();
+    }
+
+    private int base(int index) {
+        return (offset + index) * RECORD_BYTES;
+    }
+
+    private Instrument instrument(int base) {
+        return instruments[buffer.getInt(base + INSTRUMENT)];
+    }
+
+    private String string(int index) {
+        return strings[buffer.getInt(index)];
+    }
+
+    static final class Serializer extends StdSerializer<DepotPositions> {
+
+        Serializer() {
+            super(DepotPositions.class);
+        }
+
+        @Override
+        public void serialize(DepotPositions positions, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            positions.writeRows(generator);
+        }
+    }
+}
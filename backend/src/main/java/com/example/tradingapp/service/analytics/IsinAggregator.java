@@ -0,0 +1,249 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.model.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Position count, quantity and value per ISIN, without boxing.
+ *
+ * ISINs map to dense slot indexes through an open-addressing table with linear
+ * probing; the totals live in parallel primitive arrays indexed by slot.
+ * Positions usually share interned ISIN strings, so a probe mostly ends on a
+ * reference comparison. A null ISIN is grouped as "".
+ *
+ * {@link #parallel} splits the rows into fork-join partitions that aggregate
+ * on their own and are merged pairwise.
+ */
+public final class IsinAggregator {
+
+    private static final int SPLIT_ROWS = 1 << 16;
+    private static final int INITIAL_SLOTS = 64;
+
+    private int[] table = new int[INITIAL_SLOTS * 2];
+    private String[] isins = new String[INITIAL_SLOTS];
+    private int[] hashes = new int[INITIAL_SLOTS];
+    private int[] positions = new int[INITIAL_SLOTS];
+    private double[] quantity = new double[INITIAL_SLOTS];
+    private double[] totalValue = new double[INITIAL_SLOTS];
+    private int[] firstRow = new int[INITIAL_SLOTS];
+    private int size;
+
+    /**
+     * Random-access rows to aggregate.
+     */
+    public interface Rows {
+        int size();
+
+        String isin(int row);
+
+        double quantity(int row);
+
+        double totalValue(int row);
+
+        static Rows of(List<Transaction> transactions) {
+            return new Rows() {
+                @Override
+                public int size() {
+                    return transactions.size();
+                }
+
+                @Override
+                public String isin(int row) {
+                    return transactions.get(row).getIsin();
+                }
+
+                @Override
+                public double quantity(int row) {
+                    return transactions.get(row).getQuantity();
+                }
+
+                @Override
+                public double totalValue(int row) {
+                    return transactions.get(row).getTotalValue();
+                }
+            };
+        }
+    }
+
+    public static IsinAggregator sequential(Rows rows) {
+        IsinAggregator aggregator = new IsinAggregator();
+        aggregator.addRows(rows, 0, rows.size());
+        return aggregator;
+    }
+
+    public static IsinAggregator parallel(Rows rows) {
+        if (rows.size() <= SPLIT_ROWS) {
+            return sequential(rows);
+        }
+        return ForkJoinPool.commonPool().invoke(new Partition(rows, 0, rows.size()));
+    }
+
+    private void add(String isin, double quantity, double totalValue, int row) {
+        int slot = slot(isin == null ? "" : isin);
+        positions[slot]++;
+        this.quantity[slot] += quantity;
+        this.totalValue[slot] += totalValue;
+        firstRow[slot] = Math.min(firstRow[slot], row);
+    }
+
+    /**
+     * Adds the totals of the other aggregator to this one.
+     */
+    public void merge(IsinAggregator other) {
+        for (int from = 0; from < other.size; from++) {
+            int slot = slot(other.isins[from], other.hashes[from]);
+            positions[slot] += other.positions[from];
+            quantity[slot] += other.quantity[from];
+            totalValue[slot] += other.totalValue[from];
+            firstRow[slot] = Math.min(firstRow[slot], other.firstRow[from]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String isin(int slot) {
+        return isins[slot];
+    }
+
+    public int positions(int slot) {
+        return positions[slot];
+    }
+
+    public double quantity(int slot) {
+        return quantity[slot];
+    }
+
+    public double totalValue(int slot) {
+        return totalValue[slot];
+    }
+
+    /**
+     * The lowest row index aggregated into the slot, to look up other fields of the ISIN.
+     */
+    public int firstRow(int slot) {
+        return firstRow[slot];
+    }
+
+    public double totalValue() {
+        double total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            total += totalValue[slot];
+        }
+        return total;
+    }
+
+    /**
+     * Slots ordered by descending total value.
+     */
+    public int[] slotsByValue() {
+        Integer[] boxed = new Integer[size];
+        for (int slot = 0; slot < size; slot++) {
+            boxed[slot] = slot;
+        }
+        Arrays.sort(boxed, (a, b) -> Double.compare(totalValue[b], totalValue[a]));
+        int[] slots = new int[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = boxed[i];
+        }
+        return slots;
+    }
+
+    private void addRows(Rows rows, int from, int to) {
+        for (int row = from; row < to; row++) {
+            add(rows.isin(row), rows.quantity(row), rows.totalValue(row), row);
+        }
+    }
+
+    private int slot(String isin) {
+        return slot(isin, mix(isin.hashCode()));
+    }
+
+    private int slot(String isin, int hash) {
+        int mask = table.length - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            int slot = table[index] - 1;
+            if (slot < 0) {
+                return insert(index, isin, hash);
+            }
+            String key = isins[slot];
+            if (key == isin || (hashes[slot] == hash && key.equals(isin))) {
+                return slot;
+            }
+        }
+    }
+
+    private int insert(int index, String isin, int hash) {
+        if (size == isins.length) {
+            int capacity = size * 2;
+            isins = Arrays.copyOf(isins, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            totalValue = Arrays.copyOf(totalValue, capacity);
+            firstRow = Arrays.copyOf(firstRow, capacity);
+        }
+        int slot = size++;
+        isins[slot] = isin;
+        hashes[slot] = hash;
+        firstRow[slot] = Integer.MAX_VALUE;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            table[index] = slot + 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Rebuilds the table at the new length, keeping it at most half full.
+     */
+    private void rehash(int length) {
+        table = new int[length];
+        int mask = length - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int index = hashes[slot] & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = slot + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Partition extends RecursiveTask<IsinAggregator> {
+        private final Rows rows;
+        private final int from;
+        private final int to;
+
+        Partition(Rows rows, int from, int to) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IsinAggregator compute() {
+            if (to - from <= SPLIT_ROWS) {
+                IsinAggregator aggregator = new IsinAggregator();
+                aggregator.addRows(rows, from, to);
+                return aggregator;
+            }
+            int middle = (from + to) >>> 1;
+            Partition right = new Partition(rows, middle, to);
+            right.fork();
+            IsinAggregator left = new Partition(rows, from, middle).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
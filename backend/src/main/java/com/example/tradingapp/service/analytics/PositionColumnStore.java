@@ -0,0 +1,438 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.StatementIngestedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cross-depot exposure of the current positions of all depots.
+ *
+ * Exposure per ISIN and per asset type is kept as running totals (position
+ * count, quantity, value per dictionary code), so these queries cost
+ * O(distinct keys) instead of a scan over all positions. To take a depot's
+ * old positions back out of the totals when it is replaced, its rows are kept
+ * as dictionary-encoded ISIN and asset type columns next to quantity and
+ * value columns, about 24 bytes per position. Rows of one depot are
+ * contiguous; replacing a depot subtracts and tombstones its old rows and
+ * appends the new ones. Tombstones are compacted away once they make up half
+ * of the rows, and the totals are then recomputed from the live rows.
+ *
+ * Groupings without running totals, such as the issuer country, are answered
+ * by one scan over the ISIN and number columns. Tombstoned rows have ISIN code
+ * 0 and zeroed numbers, so the scan needs no liveness check.
+ */
+@Component
+public class PositionColumnStore {
+
+    private static final int TOMBSTONE = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Dictionary depots = new Dictionary();
+    private final Dictionary isins = new Dictionary();
+    private final Dictionary assetTypes = new Dictionary();
+    private String[] assetNameByIsin = new String[INITIAL_CAPACITY];
+
+    private int[] isinColumn = new int[INITIAL_CAPACITY];
+    private int[] assetTypeColumn = new int[INITIAL_CAPACITY];
+    private double[] quantityColumn = new double[INITIAL_CAPACITY];
+    private double[] totalValueColumn = new double[INITIAL_CAPACITY];
+    private int size;
+    private int tombstones;
+
+    // Running exposure totals, indexed by ISIN and asset type code
+    private final Totals isinTotals = new Totals();
+    private final Totals assetTypeTotals = new Totals();
+
+    // Row range of each depot, indexed by depot code
+    private int[] depotStart = new int[INITIAL_CAPACITY];
+    private int[] depotCount = new int[INITIAL_CAPACITY];
+
+    /**
+     * Loads all current positions from the transactions table, one depot after the other.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            jdbcTemplate.query("select t.client_id, i.asset, t.isin, i.asset_type, t.quantity, t.total_value "
+                    + "from transactions t left join instruments i on i.id = t.instrument_id order by t.client_id", rs -> {
+                String clientId = rs.getString(1);
+                int depot = depots.encode(clientId == null ? "" : clientId);
+                ensureDepotCapacity(depot + 1);
+                if (depotCount[depot] == 0) {
+                    depotStart[depot] = size;
+                }
+                append(rs.getString(2), rs.getString(3), rs.getString(4), rs.getDouble(5), rs.getDouble(6));
+                depotCount[depot]++;
+            });
+            System.out.println("Position column store loaded " + size + " position(s) of " + (depots.size() - 1) + " depot(s)");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Before DepotVersionRegistry bumps the depot's ETag
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStatementIngested(StatementIngestedEvent event) {
+        if (event.latest()) {
+            replaceDepot(event.depot(), event.positions());
+        }
+    }
+
+    /**
+     * Replaces all positions of the depot with the given ones.
+     */
+    public void replaceDepot(String depotId, List<Transaction> positions) {
+        lock.writeLock().lock();
+        try {
+            int depot = depots.encode(depotId == null ? "" : depotId);
+            ensureDepotCapacity(depot + 1);
+            tombstone(depot);
+            depotStart[depot] = size;
+            for (Transaction position : positions) {
+                append(position.getAsset(), position.getIsin(), position.getAssetType(),
+                        position.getQuantity(), position.getTotalValue());
+            }
+            depotCount[depot] = positions.size();
+            if (tombstones > size / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Total value per asset type across all depots.
+     */
+    public Map<String, Double> totalValueByAssetType() {
+        lock.readLock().lock();
+        try {
+            Map<String, Double> result = new LinkedHashMap<>();
+            for (int code = 1; code < assetTypes.size(); code++) {
+                if (assetTypeTotals.positions[code] > 0) {
+                    result.put(assetTypes.decode(code), assetTypeTotals.value[code]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Positions aggregated by ISIN across all depots, largest total value first.
+     */
+    public List<IsinAggregate> topHoldings(int limit) {
+        lock.readLock().lock();
+        try {
+            List<IsinAggregate> result = new ArrayList<>();
+            double total = isinTotals.total(isins.size());
+            for (int code : isinTotals.codesByValue(isins.size())) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(new IsinAggregate(isins.decode(code), assetNameByIsin[code], isinTotals.positions[code],
+                        isinTotals.quantity[code], isinTotals.value[code], share(isinTotals.value[code], total)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exposure per ISIN, largest total value first.
+     */
+    public List<Exposure> exposureByIsin() {
+        lock.readLock().lock();
+        try {
+            return exposure(isins, isinTotals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exposure per asset type, largest total value first.
+     */
+    public List<Exposure> exposureByAssetType() {
+        lock.readLock().lock();
+        try {
+            return exposure(assetTypes, assetTypeTotals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exposure per issuer country (the ISIN's first two letters), largest total value first.
+     */
+    public List<Exposure> exposureByCountry() {
+        lock.readLock().lock();
+        try {
+            Dictionary countries = new Dictionary();
+            int[] countryByIsin = new int[isins.size()];
+            for (int code = 1; code < isins.size(); code++) {
+                String isin = isins.decode(code);
+                countryByIsin[code] = countries.encode(isin.length() < 2 ? "" : isin.substring(0, 2));
+            }
+            Totals totals = new Totals();
+            for (int i = 0; i < size; i++) {
+                totals.add(countryByIsin[isinColumn[i]], 1, quantityColumn[i], totalValueColumn[i]);
+            }
+            return exposure(countries, totals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Exposure> exposure(Dictionary keys, Totals totals) {
+        double total = totals.total(keys.size());
+        int[] codes = totals.codesByValue(keys.size());
+        List<Exposure> result = new ArrayList<>(codes.length);
+        for (int code : codes) {
+            result.add(new Exposure(keys.decode(code), totals.positions[code], totals.quantity[code],
+                    totals.value[code], share(totals.value[code], total)));
+        }
+        return result;
+    }
+
+    private static double share(double value, double total) {
+        return total == 0 ? 0 : value / total;
+    }
+
+    public int positionCount() {
+        lock.readLock().lock();
+        try {
+            return size - tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void append(String asset, String isin, String assetType, double quantity, double totalValue) {
+        ensureCapacity(size + 1);
+        int isinCode = isins.encode(isin == null ? "" : isin);
+        if (isinCode >= assetNameByIsin.length) {
+            assetNameByIsin = Arrays.copyOf(assetNameByIsin, Math.max(isinCode + 1, assetNameByIsin.length * 2));
+        }
+        if (assetNameByIsin[isinCode] == null) {
+            assetNameByIsin[isinCode] = asset;
+        }
+        int assetTypeCode = assetTypes.encode(assetType == null ? "" : assetType);
+        isinColumn[size] = isinCode;
+        assetTypeColumn[size] = assetTypeCode;
+        quantityColumn[size] = quantity;
+        totalValueColumn[size] = totalValue;
+        isinTotals.add(isinCode, 1, quantity, totalValue);
+        assetTypeTotals.add(assetTypeCode, 1, quantity, totalValue);
+        size++;
+    }
+
+    private void tombstone(int depot) {
+        int start = depotStart[depot];
+        int end = start + depotCount[depot];
+        for (int i = start; i < end; i++) {
+            isinTotals.add(isinColumn[i], -1, -quantityColumn[i], -totalValueColumn[i]);
+            assetTypeTotals.add(assetTypeColumn[i], -1, -quantityColumn[i], -totalValueColumn[i]);
+            isinColumn[i] = TOMBSTONE;
+            assetTypeColumn[i] = TOMBSTONE;
+            quantityColumn[i] = 0;
+            totalValueColumn[i] = 0;
+        }
+        tombstones += depotCount[depot];
+        depotCount[depot] = 0;
+    }
+
+    private void compact() {
+        // Pack the slices in row order: a replaced depot sits after depots with higher codes,
+        // and moving it first would overwrite their rows before they are moved
+        Integer[] order = new Integer[depots.size() - 1];
+        for (int depot = 1; depot < depots.size(); depot++) {
+            order[depot - 1] = depot;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(depotStart[a], depotStart[b]));
+        int target = 0;
+        for (int depot : order) {
+            int start = depotStart[depot];
+            int count = depotCount[depot];
+            System.arraycopy(isinColumn, start, isinColumn, target, count);
+            System.arraycopy(assetTypeColumn, start, assetTypeColumn, target, count);
+            System.arraycopy(quantityColumn, start, quantityColumn, target, count);
+            System.arraycopy(totalValueColumn, start, totalValueColumn, target, count);
+            depotStart[depot] = target;
+            target += count;
+        }
+        size = target;
+        tombstones = 0;
+
+        // Recompute the running totals to drop accumulated rounding drift
+        isinTotals.clear();
+        assetTypeTotals.clear();
+        for (int i = 0; i < size; i++) {
+            isinTotals.add(isinColumn[i], 1, quantityColumn[i], totalValueColumn[i]);
+            assetTypeTotals.add(assetTypeColumn[i], 1, quantityColumn[i], totalValueColumn[i]);
+        }
+    }
+
+    private void clear() {
+        depots.clear();
+        isins.clear();
+        assetTypes.clear();
+        Arrays.fill(assetNameByIsin, null);
+        Arrays.fill(depotCount, 0);
+        isinTotals.clear();
+        assetTypeTotals.clear();
+        size = 0;
+        tombstones = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= isinColumn.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, isinColumn.length * 2);
+        isinColumn = Arrays.copyOf(isinColumn, newCapacity);
+        assetTypeColumn = Arrays.copyOf(assetTypeColumn, newCapacity);
+        quantityColumn = Arrays.copyOf(quantityColumn, newCapacity);
+        totalValueColumn = Arrays.copyOf(totalValueColumn, newCapacity);
+        ensureDepotCapacity(depots.size());
+    }
+
+    private void ensureDepotCapacity(int capacity) {
+        if (capacity > depotStart.length) {
+            int newCapacity = Math.max(capacity, depotStart.length * 2);
+            depotStart = Arrays.copyOf(depotStart, newCapacity);
+            depotCount = Arrays.copyOf(depotCount, newCapacity);
+        }
+    }
+
+    /**
+     * Aggregated holdings of one ISIN across all depots.
+     */
+    public record IsinAggregate(String isin, String asset, int positions, double quantity, double totalValue, double share) {
+    }
+
+    /**
+     * Aggregated exposure of one ISIN or asset type across all depots.
+     */
+    public record Exposure(String key, int positions, double quantity, double totalValue, double share) {
+    }
+
+    /**
+     * Running position count, quantity and value per dictionary code.
+     */
+    private static final class Totals {
+        private int[] positions = new int[INITIAL_CAPACITY];
+        private double[] quantity = new double[INITIAL_CAPACITY];
+        private double[] value = new double[INITIAL_CAPACITY];
+
+        void add(int code, int count, double quantityDelta, double valueDelta) {
+            if (code >= positions.length) {
+                int newCapacity = Math.max(code + 1, positions.length * 2);
+                positions = Arrays.copyOf(positions, newCapacity);
+                quantity = Arrays.copyOf(quantity, newCapacity);
+                value = Arrays.copyOf(value, newCapacity);
+            }
+            positions[code] += count;
+            quantity[code] += quantityDelta;
+            value[code] += valueDelta;
+        }
+
+        double total(int size) {
+            double total = 0;
+            for (int code = 1; code < size; code++) {
+                total += value[code];
+            }
+            return total;
+        }
+
+        /**
+         * Codes that currently hold positions, ordered by descending value.
+         */
+        int[] codesByValue(int size) {
+            int count = 0;
+            int[] codes = new int[Math.max(0, size - 1)];
+            for (int code = 1; code < size; code++) {
+                if (positions[code] > 0) {
+                    codes[count++] = code;
+                }
+            }
+            Integer[] boxed = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                boxed[i] = codes[i];
+            }
+            Arrays.sort(boxed, (a, b) -> Double.compare(value[b], value[a]));
+            int[] sorted = new int[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = boxed[i];
+            }
+            return sorted;
+        }
+
+        void clear() {
+            Arrays.fill(positions, 0);
+            Arrays.fill(quantity, 0);
+            Arrays.fill(value, 0);
+        }
+    }
+
+    /**
+     * String dictionary; code 0 is reserved for tombstoned rows.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary() {
+            clear();
+        }
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+            values.add(null);
+        }
+    }
+}
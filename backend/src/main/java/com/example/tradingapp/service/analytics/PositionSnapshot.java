@@ -0,0 +1,296 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.StatementIngestedEvent;
+import com.example.tradingapp.service.analytics.PositionColumnStore.IsinAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Off-heap copy of the current positions of every depot, served by the
+ * portfolio endpoint.
+ *
+ * Each position is a fixed 48-byte record in a direct buffer (id, instrument
+ * code, transaction id and date codes, quantity, unit price, total value), so
+ * a loaded depot adds no objects for the collector to trace. Strings are kept
+ * once per instrument or distinct value in on-heap dictionaries.
+ *
+ * A depot's records are contiguous. Replacing a depot appends its new records
+ * and then swaps its slice, so readers see either the old or the new positions
+ * of a depot, never a mix. When the buffer is full the live slices are copied
+ * into a new buffer, which is published as a whole; readers still holding the
+ * old one finish on it.
+ */
+@Component
+public class PositionSnapshot {
+
+    static final int RECORD_BYTES = 48;
+    static final int ID = 0;
+    static final int INSTRUMENT = 8;
+    static final int TRANSACTION_ID = 12;
+    static final int DATE = 16;
+    static final int QUANTITY = 24;
+    static final int UNIT_PRICE = 32;
+    static final int TOTAL_VALUE = 40;
+
+    private static final int INITIAL_RECORDS = 1024;
+    private static final String NAME_KEY_PREFIX = "name:";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Region region = new Region(ByteBuffer.allocateDirect(INITIAL_RECORDS * RECORD_BYTES), new ConcurrentHashMap<>());
+    private volatile Instrument[] instruments = new Instrument[64];
+    private volatile String[] strings = new String[64];
+
+    // Writer state, guarded by this
+    private final Map<String, Integer> instrumentCodes = new HashMap<>();
+    private final Map<String, Integer> stringCodes = new HashMap<>();
+    private int usedRecords;
+    private int liveRecords;
+
+    /**
+     * Loads all current positions from the transactions table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from transactions", Integer.class);
+        ByteBuffer[] buffer = {ByteBuffer.allocateDirect(Math.max(INITIAL_RECORDS, rows == null ? 0 : rows * 2) * RECORD_BYTES)};
+        ConcurrentHashMap<String, Slice> depots = new ConcurrentHashMap<>();
+        int[] used = {0};
+        String[] depot = {null};
+        int[] start = {0};
+        jdbcTemplate.query("select t.client_id, t.id, t.transaction_id, coalesce(s.statement_date, t.date), t.isin, i.asset, "
+                + "i.ticker, i.asset_type, t.quantity, t.unit_price, t.total_value from transactions t "
+                + "left join instruments i on i.id = t.instrument_id left join depot_summaries s on s.client_id = t.client_id "
+                + "order by t.client_id, t.id", rs -> {
+            String clientId = rs.getString(1) == null ? "" : rs.getString(1);
+            if (!clientId.equals(depot[0])) {
+                if (depot[0] != null) {
+                    depots.put(depot[0], new Slice(start[0], used[0] - start[0]));
+                }
+                depot[0] = clientId;
+                start[0] = used[0];
+            }
+            if ((used[0] + 1) * RECORD_BYTES > buffer[0].capacity()) {
+                // Rows were added since the count
+                ByteBuffer grown = ByteBuffer.allocateDirect(buffer[0].capacity() * 2);
+                grown.put(0, buffer[0], 0, used[0] * RECORD_BYTES);
+                buffer[0] = grown;
+            }
+            write(buffer[0], used[0]++, rs.getLong(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                    rs.getDouble(9), rs.getDouble(10), rs.getDouble(11));
+        });
+        if (depot[0] != null) {
+            depots.put(depot[0], new Slice(start[0], used[0] - start[0]));
+        }
+        usedRecords = used[0];
+        liveRecords = used[0];
+        region = new Region(buffer[0], depots);
+        System.out.println("Position snapshot loaded " + used[0] + " position(s) of " + depots.size()
+                + " depot(s) into " + buffer[0].capacity() / 1024 + " KB off-heap");
+    }
+
+    // Before DepotVersionRegistry bumps the depot's ETag
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStatementIngested(StatementIngestedEvent event) {
+        if (event.latest()) {
+            replaceDepot(event.depot(), event.positions());
+        }
+    }
+
+    /**
+     * Replaces all positions of the depot with the given ones.
+     */
+    public synchronized void replaceDepot(String depot, List<Transaction> positions) {
+        int count = positions.size();
+        Region current = region;
+        if (usedRecords + count > current.capacity()) {
+            current = compact(current, count);
+        }
+        int offset = usedRecords;
+        for (int i = 0; i < count; i++) {
+            Transaction position = positions.get(i);
+            write(current.buffer, offset + i, position.getId() == null ? 0 : position.getId(), position.getTransactionId(),
+                    position.getDate(), position.getIsin(), position.getAsset(), position.getTicker(), position.getAssetType(),
+                    position.getQuantity(), position.getUnitPrice(), position.getTotalValue());
+        }
+        usedRecords += count;
+        Slice previous = current.depots.put(depot == null ? "" : depot, new Slice(offset, count));
+        liveRecords += count - (previous == null ? 0 : previous.count());
+    }
+
+    /**
+     * The current positions of the depot, or null when the depot is not in the snapshot.
+     */
+    public DepotPositions positions(String depot) {
+        Region current = region;
+        Slice slice = current.depots.get(depot);
+        if (slice == null) {
+            return null;
+        }
+        // Read the dictionaries after the slice, so they cover every code the slice uses
+        return new DepotPositions(depot, current.buffer, slice.offset(), slice.count(), instruments, strings);
+    }
+
+    /**
+     * Positions of the given depots aggregated by ISIN, largest total value first.
+     * Depots not in the snapshot are skipped.
+     */
+    public List<IsinAggregate> holdings(Collection<String> depots, int limit) {
+        Region current = region;
+        List<Slice> slices = new ArrayList<>();
+        int rows = 0;
+        for (String depot : new LinkedHashSet<>(depots)) {
+            Slice slice = current.depots.get(depot);
+            if (slice != null) {
+                slices.add(slice);
+                rows += slice.count();
+            }
+        }
+        int[] records = new int[rows];
+        int row = 0;
+        for (Slice slice : slices) {
+            for (int i = 0; i < slice.count(); i++) {
+                records[row++] = (slice.offset() + i) * RECORD_BYTES;
+            }
+        }
+        Instrument[] instruments = this.instruments;
+        ByteBuffer buffer = current.buffer;
+        IsinAggregator totals = IsinAggregator.parallel(new IsinAggregator.Rows() {
+            @Override
+            public int size() {
+                return records.length;
+            }
+
+            @Override
+            public String isin(int row) {
+                return instruments[buffer.getInt(records[row] + INSTRUMENT)].isin();
+            }
+
+            @Override
+            public double quantity(int row) {
+                return buffer.getDouble(records[row] + QUANTITY);
+            }
+
+            @Override
+            public double totalValue(int row) {
+                return buffer.getDouble(records[row] + TOTAL_VALUE);
+            }
+        });
+
+        double total = totals.totalValue();
+        List<IsinAggregate> result = new ArrayList<>();
+        for (int slot : totals.slotsByValue()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            String asset = instruments[buffer.getInt(records[totals.firstRow(slot)] + INSTRUMENT)].asset();
+            result.add(new IsinAggregate(totals.isin(slot), asset, totals.positions(slot), totals.quantity(slot),
+                    totals.totalValue(slot), total == 0 ? 0 : totals.totalValue(slot) / total));
+        }
+        return result;
+    }
+
+    public synchronized int positionCount() {
+        return liveRecords;
+    }
+
+    /**
+     * Copies the live slices into a buffer with room for at least {@code extra} more records.
+     */
+    private Region compact(Region source, int extra) {
+        int capacity = Math.max(INITIAL_RECORDS, (liveRecords + extra) * 2);
+        Region target = new Region(ByteBuffer.allocateDirect(capacity * RECORD_BYTES), new ConcurrentHashMap<>());
+        int used = 0;
+        for (Map.Entry<String, Slice> entry : source.depots.entrySet()) {
+            Slice slice = entry.getValue();
+            target.buffer.put(used * RECORD_BYTES, source.buffer, slice.offset() * RECORD_BYTES, slice.count() * RECORD_BYTES);
+            target.depots.put(entry.getKey(), new Slice(used, slice.count()));
+            used += slice.count();
+        }
+        usedRecords = used;
+        liveRecords = used;
+        region = target;
+        return target;
+    }
+
+    private void write(ByteBuffer buffer, int record, long id, String transactionId, String date, String isin,
+                       String asset, String ticker, String assetType, double quantity, double unitPrice, double totalValue) {
+        int base = record * RECORD_BYTES;
+        buffer.putLong(base + ID, id);
+        buffer.putInt(base + INSTRUMENT, instrumentCode(isin, asset, ticker, assetType));
+        buffer.putInt(base + TRANSACTION_ID, stringCode(transactionId));
+        buffer.putInt(base + DATE, stringCode(date));
+        buffer.putDouble(base + QUANTITY, quantity);
+        buffer.putDouble(base + UNIT_PRICE, unitPrice);
+        buffer.putDouble(base + TOTAL_VALUE, totalValue);
+    }
+
+    /**
+     * Code of the instrument, keyed by ISIN (or asset name) like the instruments
+     * table; a changed name, ticker or type replaces the entry for every depot.
+     */
+    private int instrumentCode(String isin, String asset, String ticker, String assetType) {
+        String key = isin != null && !isin.isEmpty() ? isin : NAME_KEY_PREFIX + asset;
+        Instrument instrument = new Instrument(isin, asset, ticker, assetType);
+        Integer code = instrumentCodes.get(key);
+        if (code == null) {
+            code = instrumentCodes.size();
+            instrumentCodes.put(key, code);
+            if (code == instruments.length) {
+                instruments = Arrays.copyOf(instruments, code * 2);
+            }
+            instruments[code] = instrument;
+        } else if (!instrument.equals(instruments[code])) {
+            instruments[code] = instrument;
+        }
+        return code;
+    }
+
+    private int stringCode(String value) {
+        Integer code = stringCodes.get(value);
+        if (code == null) {
+            code = stringCodes.size();
+            stringCodes.put(value, code);
+            if (code == strings.length) {
+                strings = Arrays.copyOf(strings, code * 2);
+            }
+            strings[code] = value;
+        }
+        return code;
+    }
+
+    /**
+     * Instrument strings shared by all positions of the instrument.
+     */
+    record Instrument(String isin, String asset, String ticker, String assetType) {
+    }
+
+    private record Slice(int offset, int count) {
+    }
+
+    private record Region(ByteBuffer buffer, ConcurrentHashMap<String, Slice> depots) {
+        int capacity() {
+            return buffer.capacity() / RECORD_BYTES;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.tradingapp.service.backfill;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only list of the statement files a backfill has committed, one
+ * "size, last-modified millis, relative path" line per file. A file that
+ * changed since it was imported no longer matches its line and is imported again.
+ */
+final class BackfillCheckpoint {
+
+    private final Path file;
+    private final Set<String> done = new HashSet<>();
+
+    BackfillCheckpoint(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            done.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    static String entry(Path directory, Path statement) throws IOException {
+        return Files.size(statement) + "\t" + Files.getLastModifiedTime(statement).toMillis() + "\t"
+                + directory.relativize(statement).toString().replace('\\', '/');
+    }
+
+    boolean isDone(String entry) {
+        return done.contains(entry);
+    }
+
+    /**
+     * Appends the entries and forces them to disk; called once their batch is committed.
+     */
+    void record(List<String> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String entry : entries) {
+            lines.append(entry).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        done.addAll(entries);
+    }
+}
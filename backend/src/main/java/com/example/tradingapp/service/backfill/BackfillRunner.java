@@ -0,0 +1,53 @@
+package com.example.tradingapp.service.backfill;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Headless backfill: started with {@code tradingapp.backfill.dir=<directory>} set
+ * (argument, system property or {@code TRADINGAPP_BACKFILL_DIR}),
+ * the application runs without a web server, imports the directory and exits,
+ * with status 1 when a file could not be imported. It exits before the
+ * application is ready, so the in-memory position stores are not loaded.
+ */
+@Component
+@ConditionalOnProperty(BackfillRunner.DIR_PROPERTY)
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BackfillRunner implements ApplicationRunner {
+
+    public static final String DIR_PROPERTY = "tradingapp.backfill.dir";
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${" + DIR_PROPERTY + "}")
+    private String directory;
+
+    /**
+     * Whether the environment asks for a backfill, by the same rule as this runner's condition.
+     */
+    public static boolean isRequested(Environment environment) {
+        return environment.containsProperty(DIR_PROPERTY)
+                && !"false".equalsIgnoreCase(environment.getProperty(DIR_PROPERTY));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        BulkImporter.Result result = bulkImporter.importDirectory(Path.of(directory));
+        System.exit(SpringApplication.exit(context, () -> result.failed() > 0 ? 1 : 0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.tradingapp.service.backfill;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.InstrumentCache;
+import com.example.tradingapp.service.extract.DocumentExtractors;
+import com.example.tradingapp.service.parser.StatementParserRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Imports a directory of statement files without going through HTTP or JPA.
+ *
+ * Files are imported in path order, in batches of {@code batch-files}. The files of
+ * a batch are extracted and parsed in parallel on a fork-join pool while the
+ * previous batch is written by {@link StatementBatchWriter}. Once a batch is
+ * committed its files are added to the checkpoint, so an interrupted import
+ * resumes after the last committed batch. Files that cannot be parsed are
+ * reported and skipped, and retried by the next run.
+ */
+@Component
+public class BulkImporter {
+
+    public static final String CHECKPOINT_FILE = ".backfill-checkpoint";
+
+    @Autowired
+    private DocumentExtractors documentExtractors;
+
+    @Autowired
+    private StatementParserRegistry statementParserRegistry;
+
+    @Autowired
+    private InstrumentCache instrumentCache;
+
+    @Autowired
+    private StatementBatchWriter statementBatchWriter;
+
+    @Value("${tradingapp.backfill.batch-files:200}")
+    private int batchFiles;
+
+    @Value("${tradingapp.backfill.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Counts of a backfill run.
+     */
+    public record Result(int files, int skipped, int imported, int failed, long positions, long elapsedMillis) {
+    }
+
+    private record Parsed(Path file, String entry, ParsedStatement statement) {
+    }
+
+    public Result importDirectory(Path directory) throws IOException {
+        long started = System.nanoTime();
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(directory.resolve(CHECKPOINT_FILE));
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .toList();
+        }
+        List<Parsed> pending = new ArrayList<>();
+        for (Path file : files) {
+            String entry = BackfillCheckpoint.entry(directory, file);
+            if (!checkpoint.isDone(entry)) {
+                pending.add(new Parsed(file, entry, null));
+            }
+        }
+        int skipped = files.size() - pending.size();
+        System.out.println("Backfill of " + directory + ": " + files.size() + " file(s), " + skipped
+                + " already imported");
+
+        int imported = 0;
+        int failed = 0;
+        long positions = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            ForkJoinTask<List<Parsed>> next = pending.isEmpty() ? null : pool.submit(() -> parse(batch(pending, 0)));
+            for (int from = 0; from < pending.size(); from += batchFiles) {
+                List<Parsed> parsed = next.join();
+                int following = from + batchFiles;
+                next = following < pending.size() ? pool.submit(() -> parse(batch(pending, following))) : null;
+
+                List<ParsedStatement> statements = new ArrayList<>();
+                List<String> entries = new ArrayList<>();
+                for (Parsed file : parsed) {
+                    if (file.statement() == null) {
+                        failed++;
+                    } else {
+                        statements.add(file.statement());
+                        entries.add(file.entry());
+                    }
+                }
+                positions += statementBatchWriter.write(statements);
+                checkpoint.record(entries);
+                imported += statements.size();
+                long elapsed = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                System.out.println("Backfill: " + (imported + failed) + "/" + pending.size() + " file(s), "
+                        + positions + " current position(s), " + imported * 1000L / elapsed + " files/s");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Result result = new Result(files.size(), skipped, imported, failed, positions,
+                (System.nanoTime() - started) / 1_000_000);
+        System.out.println("Backfill finished: " + result);
+        return result;
+    }
+
+    private List<Parsed> batch(List<Parsed> pending, int from) {
+        return pending.subList(from, Math.min(pending.size(), from + batchFiles));
+    }
+
+    private List<Parsed> parse(List<Parsed> files) {
+        return files.parallelStream().map(this::parse).toList();
+    }
+
+    private Parsed parse(Parsed file) {
+        try (Reader content = documentExtractors.open(file.file())) {
+            ParsedStatement statement = statementParserRegistry.parse(content);
+            for (Transaction position : statement.getPositions()) {
+                instrumentCache.intern(position);
+            }
+            return new Parsed(file.file(), file.entry(), statement);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Backfill skipped " + file.file() + ": " + e.getMessage());
+            return file;
+        }
+    }
+}
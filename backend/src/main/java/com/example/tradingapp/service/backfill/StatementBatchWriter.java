@@ -0,0 +1,213 @@
+package com.example.tradingapp.service.backfill;
+
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.model.DepotSummary;
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.DepotSummaries;
+import com.example.tradingapp.service.FileProcessingService;
+import com.example.tradingapp.service.InstrumentCache;
+import com.example.tradingapp.service.StatementIngestedEvent;
+import com.example.tradingapp.service.journal.IngestionJournal;
+import com.example.tradingapp.service.journal.StatementCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stores a batch of parsed statements with batched JDBC statements in one
+ * transaction, with the same outcome as uploading them one by one: clients
+ * and statement snapshots are merged by key, the latest statement of each
+ * depot is merged into its current positions and replaces its summary, and
+ * every statement is journaled and announced with a {@link StatementIngestedEvent}.
+ */
+@Component
+public class StatementBatchWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private InstrumentCache instrumentCache;
+
+    @Autowired
+    private DepotSummaries depotSummaries;
+
+    @Autowired
+    private IngestionJournal ingestionJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Writes the statements in order and returns the number of positions that became current.
+     */
+    @Transactional
+    public int write(List<ParsedStatement> statements) {
+        if (statements.isEmpty()) {
+            return 0;
+        }
+        for (ParsedStatement statement : statements) {
+            ingestionJournal.appendInTransaction(statement);
+        }
+        Map<String, DepotState> depots = loadDepots(statements);
+
+        jdbcTemplate.batchUpdate("merge into clients (id, name, email, birth_date, depot) key (id) values (?, ?, ?, ?, ?)",
+                new ArrayList<>(depots.keySet()), depots.size(), (ps, depot) -> {
+                    ps.setString(1, depot);
+                    ps.setString(2, "Client " + depot);
+                    ps.setString(3, "client" + depot + "@example.com");
+                    ps.setString(4, "2000-01-01");
+                    ps.setString(5, depot);
+                });
+
+        // Same rule as FileProcessingService: a statement becomes the latest unless it is dated before it
+        List<LocalDate> days = new ArrayList<>(statements.size());
+        Map<String, ParsedStatement> current = new LinkedHashMap<>();
+        Map<String, DepotSummary> summaries = new LinkedHashMap<>();
+        List<Integer> versions = new ArrayList<>(statements.size());
+        for (ParsedStatement statement : statements) {
+            DepotState depot = depots.get(statement.getDepot());
+            DepotSummary summary = depotSummaries.summarize(statement);
+            LocalDate day = FileProcessingService.parseStatementDay(statement.getStatementDate());
+            if (depot.latestDate == null || depot.latestDate.equals(statement.getStatementDate())
+                    || day == null || depot.latestDay == null || !day.isBefore(depot.latestDay)) {
+                depot.latestDate = statement.getStatementDate();
+                depot.latestDay = day;
+                current.put(statement.getDepot(), statement);
+                summaries.put(statement.getDepot(), summary);
+            }
+            days.add(day);
+            versions.add(++depot.version);
+        }
+
+        jdbcTemplate.batchUpdate("update statement_snapshots set latest = false where client_id = ? and latest and statement_date <> ?",
+                new ArrayList<>(depots.entrySet()), depots.size(), (ps, depot) -> {
+                    ps.setString(1, depot.getKey());
+                    ps.setString(2, depot.getValue().latestDate);
+                });
+        LocalDateTime ingestedAt = LocalDateTime.now();
+        List<Integer> indexes = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate("merge into statement_snapshots (client_id, statement_date, statement_day, version, latest, "
+                        + "position_count, total_value, ingested_at, payload) key (client_id, statement_date) "
+                        + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                indexes, indexes.size(), (ps, i) -> {
+                    ParsedStatement statement = statements.get(i);
+                    LocalDate day = days.get(i);
+                    double totalValue = 0;
+                    for (Transaction position : statement.getPositions()) {
+                        totalValue += position.getTotalValue();
+                    }
+                    ps.setString(1, statement.getDepot());
+                    ps.setString(2, statement.getStatementDate());
+                    if (day == null) {
+                        ps.setNull(3, Types.DATE);
+                    } else {
+                        ps.setDate(3, Date.valueOf(day));
+                    }
+                    ps.setInt(4, versions.get(i));
+                    ps.setBoolean(5, Objects.equals(depots.get(statement.getDepot()).latestDate, statement.getStatementDate()));
+                    ps.setInt(6, statement.getPositions().size());
+                    ps.setDouble(7, totalValue);
+                    ps.setTimestamp(8, Timestamp.valueOf(ingestedAt));
+                    ps.setBytes(9, StatementCodec.encode(statement));
+                });
+
+        int rows = replacePositions(current);
+        replaceSummaries(summaries.values());
+        for (ParsedStatement statement : statements) {
+            boolean latest = current.get(statement.getDepot()) == statement;
+            eventPublisher.publishEvent(new StatementIngestedEvent(statement.getDepot(), statement.getPositions(), latest));
+        }
+        return rows;
+    }
+
+    private int replacePositions(Map<String, ParsedStatement> current) {
+        Map<String, List<Transaction>> positions = new LinkedHashMap<>();
+        int rows = 0;
+        for (ParsedStatement statement : current.values()) {
+            for (Transaction position : statement.getPositions()) {
+                instrumentCache.resolve(position);
+            }
+            positions.put(statement.getDepot(), statement.getPositions());
+            rows += statement.getPositions().size();
+        }
+        transactionRepository.mergePositions(positions);
+        return rows;
+    }
+
+    private void replaceSummaries(Collection<DepotSummary> summaries) {
+        jdbcTemplate.batchUpdate("merge into depot_summaries (client_id, statement_date, position_count, total_value, "
+                        + "stated_position_count, stated_total_value, alert) key (client_id) values (?, ?, ?, ?, ?, ?, ?)",
+                summaries, summaries.size(), (ps, summary) -> {
+                    ps.setString(1, summary.getClientId());
+                    ps.setString(2, summary.getStatementDate());
+                    ps.setInt(3, summary.getPositionCount());
+                    ps.setDouble(4, summary.getTotalValue());
+                    ps.setObject(5, summary.getStatedPositionCount(), Types.INTEGER);
+                    ps.setObject(6, summary.getStatedTotalValue(), Types.DOUBLE);
+                    ps.setString(7, summary.getAlert());
+                });
+        jdbcTemplate.batchUpdate("delete from depot_summary_asset_types where client_id = ?",
+                summaries, summaries.size(), (ps, summary) -> ps.setString(1, summary.getClientId()));
+        List<Object[]> assetTypes = new ArrayList<>();
+        for (DepotSummary summary : summaries) {
+            for (Map.Entry<String, Double> assetType : summary.getAssetTypeValues().entrySet()) {
+                assetTypes.add(new Object[]{summary.getClientId(), assetType.getKey(), assetType.getValue()});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into depot_summary_asset_types (client_id, asset_type, total_value) values (?, ?, ?)",
+                assetTypes);
+    }
+
+    private Map<String, DepotState> loadDepots(List<ParsedStatement> statements) {
+        Map<String, DepotState> depots = new LinkedHashMap<>();
+        for (ParsedStatement statement : statements) {
+            depots.putIfAbsent(statement.getDepot(), new DepotState());
+        }
+        String placeholders = String.join(", ", Collections.nCopies(depots.size(), "?"));
+        Object[] ids = depots.keySet().toArray();
+        jdbcTemplate.query("select client_id, max(version) from statement_snapshots where client_id in (" + placeholders
+                + ") group by client_id", rs -> {
+            depots.get(rs.getString(1)).version = rs.getInt(2);
+        }, ids);
+        jdbcTemplate.query("select client_id, statement_date, statement_day from statement_snapshots where latest and client_id in ("
+                + placeholders + ")", rs -> {
+            DepotState depot = depots.get(rs.getString(1));
+            depot.latestDate = rs.getString(2);
+            Date day = rs.getDate(3);
+            depot.latestDay = day == null ? null : day.toLocalDate();
+        }, ids);
+        return depots;
+    }
+
+    /**
+     * Snapshot bookkeeping of a depot while its statements of the batch are applied.
+     */
+    private static final class DepotState {
+        int version;
+        String latestDate;
+        LocalDate latestDay;
+    }
+}
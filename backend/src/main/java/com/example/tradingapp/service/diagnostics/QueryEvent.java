@@ -0,0 +1,49 @@
+package com.example.tradingapp.service.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * JFR event for a GET request under /api, begun and committed by {@link QueryEventFilter}.
+ * Controllers fill in the depot and the number of rows through {@link #record}.
+ */
+@Name("tradingapp.Query")
+@Label("Query")
+@Category({"Trading App", "Queries"})
+@Description("A read request with the rows returned and the response bytes before compression")
+public class QueryEvent extends Event {
+
+    static final String ATTRIBUTE = QueryEvent.class.getName();
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Depot")
+    String depot;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Bytes Written")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Status")
+    int status;
+
+    /**
+     * Adds the depot and row count to the request's event; does nothing when no recording is running.
+     */
+    public static void record(WebRequest request, String depot, int rows) {
+        if (request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof QueryEvent event) {
+            event.depot = depot;
+            event.rows = rows;
+        }
+    }
+}
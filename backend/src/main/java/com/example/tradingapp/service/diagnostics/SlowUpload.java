@@ -0,0 +1,11 @@
+package com.example.tradingapp.service.diagnostics;
+
+import java.util.Map;
+
+/**
+ * A slow upload as logged and served by the admin endpoint. Stage timings are in
+ * nanoseconds, in the order the stages ran.
+ */
+public record SlowUpload(String startedAt, String filename, String fileType, long sizeBytes, String depot, int rows,
+                         int issues, String outcome, long totalNanos, Map<String, Long> stageNanos) {
+}
@@ -0,0 +1,57 @@
+package com.example.tradingapp.service.diagnostics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads slower than the threshold, written as one JSON log line each
+ * ("slow-upload {...}") and kept in a ring buffer of the most recent ones.
+ */
+@Component
+public class SlowUploadLog {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long thresholdNanos;
+    private final SlowUpload[] recent;
+    private long count;
+
+    public SlowUploadLog(@Value("${tradingapp.diagnostics.slow-upload-threshold:2s}") Duration threshold,
+                         @Value("${tradingapp.diagnostics.slow-upload-history:50}") int history) {
+        this.thresholdNanos = threshold.toNanos();
+        this.recent = new SlowUpload[Math.max(1, history)];
+    }
+
+    public void finish(UploadTrace trace, String outcome) {
+        trace.end(outcome);
+        if (trace.totalNanos() < thresholdNanos) {
+            return;
+        }
+        SlowUpload upload = trace.toSlowUpload(outcome);
+        synchronized (this) {
+            recent[(int) (count++ % recent.length)] = upload;
+        }
+        try {
+            System.out.println("slow-upload " + objectMapper.writeValueAsString(upload));
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not log slow upload of " + upload.filename() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the most recent slow uploads, newest first.
+     */
+    public synchronized List<SlowUpload> recent() {
+        int size = (int) Math.min(count, recent.length);
+        List<SlowUpload> uploads = new ArrayList<>(size);
+        for (long i = count - 1; i >= count - size; i--) {
+            uploads.add(recent[(int) (i % recent.length)]);
+        }
+        return uploads;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tradingapp.service.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one upload, from the size check to the end of the commit.
+ */
+@Name("tradingapp.Upload")
+@Label("Statement Upload")
+@Category({"Trading App", "Ingestion"})
+@Description("One statement upload with the depot and the number of rows it produced")
+class UploadEvent extends Event {
+
+    @Label("File Name")
+    String filename;
+
+    @Label("File Type")
+    String fileType;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    long sizeBytes;
+
+    @Label("Depot")
+    String depot;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Issues")
+    int issues;
+
+    @Label("Outcome")
+    String outcome;
+}
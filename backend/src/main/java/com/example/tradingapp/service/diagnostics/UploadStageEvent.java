@@ -0,0 +1,26 @@
+package com.example.tradingapp.service.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one stage of an upload (extract, parse, delete, insert, ...).
+ */
+@Name("tradingapp.UploadStage")
+@Label("Upload Stage")
+@Category({"Trading App", "Ingestion"})
+@Description("A stage of a statement upload, as timed by UploadTrace")
+class UploadStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("File Name")
+    String filename;
+
+    @Label("Depot")
+    String depot;
+}
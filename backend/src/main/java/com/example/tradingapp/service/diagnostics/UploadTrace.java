@@ -0,0 +1,91 @@
+package com.example.tradingapp.service.diagnostics;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.service.UploadPolicy;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Nanosecond timing of the stages of one upload. Each {@link #mark} closes a stage:
+ * the time since the previous mark is added under the stage's name, so the stages
+ * always add up to the total.
+ */
+public final class UploadTrace {
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final String filename;
+    private final long sizeBytes;
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private long lastNanos = startNanos;
+    private String depot = "";
+    private int rows;
+    private int issues;
+    private final UploadEvent event = new UploadEvent();
+    private UploadStageEvent stageEvent = new UploadStageEvent();
+
+    public UploadTrace(String filename, long sizeBytes) {
+        this.filename = filename;
+        this.sizeBytes = sizeBytes;
+        event.begin();
+        stageEvent.begin();
+    }
+
+    /**
+     * Ends the stage that started at the previous mark, and commits it as a JFR event
+     * when a recording has {@code tradingapp.UploadStage} enabled.
+     */
+    public void mark(String stage) {
+        long now = System.nanoTime();
+        stageNanos.merge(stage, now - lastNanos, Long::sum);
+        lastNanos = now;
+        stageEvent.end();
+        if (stageEvent.shouldCommit()) {
+            stageEvent.stage = stage;
+            stageEvent.filename = filename;
+            stageEvent.depot = depot;
+            stageEvent.commit();
+        }
+        stageEvent = new UploadStageEvent();
+        stageEvent.begin();
+    }
+
+    public void statement(ParsedStatement statement) {
+        this.depot = statement.getDepot();
+        this.rows = statement.getPositions().size();
+        this.issues = statement.getIssueCount();
+    }
+
+    public long totalNanos() {
+        return lastNanos - startNanos;
+    }
+
+    public Map<String, Long> stageNanos() {
+        return Collections.unmodifiableMap(stageNanos);
+    }
+
+    /**
+     * Commits the JFR event spanning the whole upload.
+     */
+    void end(String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.filename = filename;
+            event.fileType = UploadPolicy.type(filename);
+            event.sizeBytes = sizeBytes;
+            event.depot = depot;
+            event.rows = rows;
+            event.issues = issues;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    SlowUpload toSlowUpload(String outcome) {
+        return new SlowUpload(startedAt.toString(), filename, UploadPolicy.type(filename), sizeBytes, depot, rows, issues,
+                outcome, totalNanos(), new LinkedHashMap<>(stageNanos));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tradingapp.service.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads a {@link ExportFormat#COLUMNAR} export.
+ *
+ * Layout, big-endian: magic "TPOS", version int; per row group the row count,
+ * the compressed length and the deflated columns (ids as longs; client id,
+ * transaction id, date, ISIN, asset, ticker and asset type as length-prefixed
+ * UTF-8 with -1 for null; quantity, unit price and total value as doubles);
+ * a row count of 0 and the total row count as a long end the file.
+ */
+public final class ColumnarPositionsReader {
+
+    static final int MAGIC = 0x54504F53;
+    static final int VERSION = 1;
+
+    /**
+     * One exported position.
+     */
+    public record Row(String clientId, long id, String transactionId, String date, String isin, String asset,
+                      String ticker, String assetType, double quantity, double unitPrice, double totalValue) {
+    }
+
+    /**
+     * Receives the rows of the export in order.
+     */
+    public interface RowHandler {
+        void row(Row row) throws IOException;
+    }
+
+    private ColumnarPositionsReader() {
+    }
+
+    /**
+     * Reads every row of the export and returns the row count.
+     */
+    public static long read(InputStream input, RowHandler handler) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a columnar positions export");
+        }
+        long rows = 0;
+        for (int size; (size = in.readInt()) > 0; ) {
+            byte[] compressed = in.readNBytes(in.readInt());
+            DataInputStream group = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)));
+            long[] id = new long[size];
+            for (int i = 0; i < size; i++) {
+                id[i] = group.readLong();
+            }
+            String[][] strings = new String[7][size];
+            for (String[] column : strings) {
+                for (int i = 0; i < size; i++) {
+                    column[i] = readString(group);
+                }
+            }
+            double[][] numbers = new double[3][size];
+            for (double[] column : numbers) {
+                for (int i = 0; i < size; i++) {
+                    column[i] = group.readDouble();
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                handler.row(new Row(strings[0][i], id[i], strings[1][i], strings[2][i], strings[3][i], strings[4][i],
+                        strings[5][i], strings[6][i], numbers[0][i], numbers[1][i], numbers[2][i]));
+            }
+            rows += size;
+        }
+        long expected = in.readLong();
+        if (expected != rows) {
+            throw new IOException("Export is truncated: read " + rows + " of " + expected + " rows");
+        }
+        return rows;
+    }
+
+    static byte[] header() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] trailer(long rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(12);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeLong(rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
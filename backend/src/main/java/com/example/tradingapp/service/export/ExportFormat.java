@@ -0,0 +1,163 @@
+package com.example.tradingapp.service.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodings of the position export. Every chunk is encoded and compressed on
+ * its own, so chunks can be encoded in parallel and concatenated in order.
+ */
+public enum ExportFormat {
+
+    /**
+     * RFC 4180 CSV with a header line. Each chunk is a separate gzip member;
+     * concatenated members are one valid gzip stream.
+     */
+    CSV("positions.csv.gz", "application/gzip") {
+        @Override
+        byte[] header() {
+            return gzip("clientId,id,transactionId,date,isin,asset,ticker,assetType,quantity,unitPrice,totalValue\r\n");
+        }
+
+        @Override
+        byte[] encode(PositionChunk chunk) {
+            StringBuilder csv = new StringBuilder(chunk.size * 128);
+            for (int i = 0; i < chunk.size; i++) {
+                field(csv, chunk.clientId[i]).append(',').append(chunk.id[i]).append(',');
+                field(csv, chunk.transactionId[i]).append(',');
+                field(csv, chunk.date[i]).append(',');
+                field(csv, chunk.isin[i]).append(',');
+                field(csv, chunk.asset[i]).append(',');
+                field(csv, chunk.ticker[i]).append(',');
+                field(csv, chunk.assetType[i]).append(',');
+                number(csv, chunk.quantity[i]).append(',');
+                number(csv, chunk.unitPrice[i]).append(',');
+                number(csv, chunk.totalValue[i]).append("\r\n");
+            }
+            return gzip(csv);
+        }
+
+        @Override
+        byte[] trailer(long rows) {
+            return new byte[0];
+        }
+    },
+
+    /**
+     * Columnar binary format ({@link ColumnarPositionsReader}): a header, one
+     * deflate-compressed row group per chunk with the values column by column,
+     * and a trailer with the total row count.
+     */
+    COLUMNAR("positions.tpos", "application/vnd.tradingapp.positions") {
+        @Override
+        byte[] header() {
+            return ColumnarPositionsReader.header();
+        }
+
+        @Override
+        byte[] encode(PositionChunk chunk) {
+            try {
+                ByteArrayOutputStream columns = new ByteArrayOutputStream(chunk.size * 128);
+                DataOutputStream out = new DataOutputStream(columns);
+                for (int i = 0; i < chunk.size; i++) {
+                    out.writeLong(chunk.id[i]);
+                }
+                for (String[] column : new String[][]{chunk.clientId, chunk.transactionId, chunk.date, chunk.isin,
+                        chunk.asset, chunk.ticker, chunk.assetType}) {
+                    for (int i = 0; i < chunk.size; i++) {
+                        ColumnarPositionsReader.writeString(out, column[i]);
+                    }
+                }
+                for (double[] column : new double[][]{chunk.quantity, chunk.unitPrice, chunk.totalValue}) {
+                    for (int i = 0; i < chunk.size; i++) {
+                        out.writeDouble(column[i]);
+                    }
+                }
+
+                // Deflate the whole block at once, small writes into a deflater stream are slow
+                ByteArrayOutputStream group = new ByteArrayOutputStream(columns.size() / 2 + 64);
+                DataOutputStream header = new DataOutputStream(group);
+                header.writeInt(chunk.size);
+                header.writeInt(0); // compressed length, patched below
+                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+                try (DeflaterOutputStream deflated = new DeflaterOutputStream(group, deflater, 65536)) {
+                    columns.writeTo(deflated);
+                } finally {
+                    deflater.end();
+                }
+                byte[] bytes = group.toByteArray();
+                int length = bytes.length - 8;
+                bytes[4] = (byte) (length >>> 24);
+                bytes[5] = (byte) (length >>> 16);
+                bytes[6] = (byte) (length >>> 8);
+                bytes[7] = (byte) length;
+                return bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        byte[] trailer(long rows) {
+            return ColumnarPositionsReader.trailer(rows);
+        }
+    };
+
+    private final String filename;
+    private final String contentType;
+
+    ExportFormat(String filename, String contentType) {
+        this.filename = filename;
+        this.contentType = contentType;
+    }
+
+    public String filename() {
+        return filename;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    abstract byte[] header();
+
+    abstract byte[] encode(PositionChunk chunk);
+
+    abstract byte[] trailer(long rows);
+
+    private static StringBuilder field(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return csv.append(value);
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static StringBuilder number(StringBuilder csv, double value) {
+        // Plain notation: Double.toString switches to 1.0E7 above 10^7
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? csv.append((long) value)
+                : csv.append(BigDecimal.valueOf(value).toPlainString());
+    }
+
+    private static byte[] gzip(CharSequence text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() / 4 + 64);
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes, 65536), StandardCharsets.UTF_8)) {
+            writer.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
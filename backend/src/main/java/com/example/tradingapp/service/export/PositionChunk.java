@@ -0,0 +1,38 @@
+package com.example.tradingapp.service.export;
+
+/**
+ * Up to {@code capacity} exported rows, held column by column.
+ */
+final class PositionChunk {
+
+    final long[] id;
+    final String[] clientId;
+    final String[] transactionId;
+    final String[] date;
+    final String[] isin;
+    final String[] asset;
+    final String[] ticker;
+    final String[] assetType;
+    final double[] quantity;
+    final double[] unitPrice;
+    final double[] totalValue;
+    int size;
+
+    PositionChunk(int capacity) {
+        id = new long[capacity];
+        clientId = new String[capacity];
+        transactionId = new String[capacity];
+        date = new String[capacity];
+        isin = new String[capacity];
+        asset = new String[capacity];
+        ticker = new String[capacity];
+        assetType = new String[capacity];
+        quantity = new double[capacity];
+        unitPrice = new double[capacity];
+        totalValue = new double[capacity];
+    }
+
+    boolean isFull() {
+        return size == id.length;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.tradingapp.service.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Streams every position of every depot into a compressed export.
+ *
+ * The transactions table is read in primary key order, one page of
+ * {@code fetchSize} rows per query, each query continuing after the last id of
+ * the previous page. The reading thread fills fixed-size column chunks and
+ * hands each to the fork-join pool, which encodes and compresses it; encoded
+ * chunks are written in submission order. At most a few chunks per core are
+ * in flight, so memory stays bounded whatever the table size.
+ */
+@Component
+public class PositionExporter {
+
+    private static final String PAGE_QUERY = "select t.client_id, t.id, t.transaction_id, coalesce(s.statement_date, t.date), "
+            + "t.isin, i.asset, i.ticker, i.asset_type, t.quantity, t.unit_price, t.total_value from transactions t "
+            + "left join instruments i on i.id = t.instrument_id left join depot_summaries s on s.client_id = t.client_id "
+            + "where t.id > ? order by t.id fetch first ? rows only";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkRows;
+    private final int fetchSize;
+
+    public PositionExporter(JdbcTemplate jdbcTemplate,
+                            @Value("${tradingapp.export.chunk-rows:8192}") int chunkRows,
+                            @Value("${tradingapp.export.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkRows = chunkRows;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the export to the stream and returns the number of rows. The
+     * stream is not closed. All pages are read in one read-only transaction at
+     * REPEATABLE READ, which H2 serves from a single snapshot, so uploads that
+     * commit while the export is paging are not seen half-way.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Pipeline pipeline = new Pipeline(format, out);
+        try {
+            out.write(format.header());
+            long lastId = Long.MIN_VALUE;
+            int page;
+            do {
+                long after = lastId;
+                int[] rows = {0};
+                long[] last = {lastId};
+                jdbcTemplate.query(connection -> {
+                    var statement = connection.prepareStatement(PAGE_QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    statement.setLong(1, after);
+                    statement.setInt(2, fetchSize);
+                    return statement;
+                }, rs -> {
+                    last[0] = pipeline.add(rs);
+                    rows[0]++;
+                });
+                page = rows[0];
+                lastId = last[0];
+            } while (page == fetchSize);
+            pipeline.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pipeline.cancel();
+        }
+        out.write(format.trailer(pipeline.rows));
+        out.flush();
+        System.out.println("Exported " + pipeline.rows + " position(s) as " + format.filename() + " in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+        return pipeline.rows;
+    }
+
+    /**
+     * Fills chunks from the rows read and keeps their encoding in flight.
+     */
+    private final class Pipeline {
+        private final ExportFormat format;
+        private final OutputStream out;
+        private final int maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+        private final Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>();
+        private PositionChunk chunk = new PositionChunk(chunkRows);
+        private long rows;
+
+        Pipeline(ExportFormat format, OutputStream out) {
+            this.format = format;
+            this.out = out;
+        }
+
+        /**
+         * Adds the current row and returns its id.
+         */
+        long add(ResultSet rs) throws SQLException {
+            int i = chunk.size++;
+            long id = rs.getLong(2);
+            chunk.clientId[i] = rs.getString(1);
+            chunk.id[i] = id;
+            chunk.transactionId[i] = rs.getString(3);
+            chunk.date[i] = rs.getString(4);
+            chunk.isin[i] = rs.getString(5);
+            chunk.asset[i] = rs.getString(6);
+            chunk.ticker[i] = rs.getString(7);
+            chunk.assetType[i] = rs.getString(8);
+            chunk.quantity[i] = rs.getDouble(9);
+            chunk.unitPrice[i] = rs.getDouble(10);
+            chunk.totalValue[i] = rs.getDouble(11);
+            if (chunk.isFull()) {
+                submit();
+                if (inFlight.size() >= maxInFlight) {
+                    writeOldest();
+                }
+            }
+            return id;
+        }
+
+        void finish() {
+            if (chunk.size > 0) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                writeOldest();
+            }
+        }
+
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(false));
+        }
+
+        private void submit() {
+            PositionChunk full = chunk;
+            rows += full.size;
+            inFlight.addLast(CompletableFuture.supplyAsync(() -> format.encode(full), ForkJoinPool.commonPool()));
+            chunk = new PositionChunk(chunkRows);
+        }
+
+        private void writeOldest() {
+            try {
+                out.write(inFlight.removeFirst().join());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
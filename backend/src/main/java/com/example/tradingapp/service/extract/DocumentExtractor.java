@@ -0,0 +1,28 @@
+package com.example.tradingapp.service.extract;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+
+/**
+ * Turns an uploaded document of one file type into text for the statement parsers.
+ * Implementations backed by a document library keep that code in a nested class:
+ * Spring reflects on every bean class at startup, which links it, and the verifier
+ * would otherwise load the library's types even if the bean is never created.
+ */
+public interface DocumentExtractor {
+
+    /**
+     * Opens the text of the upload. {@code spill} is the temp file of an upload above
+     * the spill threshold, or null when the upload is read from memory.
+     */
+    Reader open(MultipartFile file, Path spill) throws IOException;
+
+    /**
+     * Loads and initializes the document library ahead of the first upload.
+     */
+    default void warmUp() throws IOException {
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tradingapp.service.extract;
+
+import com.example.tradingapp.service.UploadPolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * The extractor of each file type. PDF, Word and HTML extractors are lazy beans
+ * resolved on the first upload of their type, so a deployment that only sees
+ * Markdown never loads PDFBox, POI or Jsoup. Types listed in
+ * {@code tradingapp.extract.warm-up} are initialized once the application is ready
+ * instead, so their first upload does not pay for loading the library.
+ */
+@Component
+public class DocumentExtractors {
+
+    private final Map<String, ObjectProvider<? extends DocumentExtractor>> lazyExtractors;
+    private final TextExtractor textExtractor;
+    private final String[] warmUp;
+
+    public DocumentExtractors(ObjectProvider<PdfExtractor> pdfExtractor,
+                              ObjectProvider<DocxExtractor> docxExtractor,
+                              ObjectProvider<HtmlExtractor> htmlExtractor,
+                              TextExtractor textExtractor,
+                              @Value("${tradingapp.extract.warm-up:}") String[] warmUp) {
+        this.lazyExtractors = Map.of("pdf", pdfExtractor, "docx", docxExtractor, "html", htmlExtractor);
+        this.textExtractor = textExtractor;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Opens the text of the upload with the extractor of its file type.
+     */
+    public Reader open(MultipartFile file, Path spill) throws IOException {
+        return extractor(UploadPolicy.type(file.getOriginalFilename())).open(file, spill);
+    }
+
+    /**
+     * Opens the text of a statement file on disk. Extractors read spilled uploads
+     * from their path only, so the file is passed as the spill.
+     */
+    public Reader open(Path file) throws IOException {
+        return extractor(UploadPolicy.type(file.getFileName().toString())).open(null, file);
+    }
+
+    DocumentExtractor extractor(String type) {
+        ObjectProvider<? extends DocumentExtractor> provider = lazyExtractors.get(type);
+        return provider != null ? provider.getObject() : textExtractor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String type : warmUp) {
+            String trimmed = type.trim().toLowerCase();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                extractor(trimmed).warmUp();
+                System.out.println("Warmed up " + trimmed + " extractor in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Warm-up of " + trimmed + " extractor failed: " + e.getMessage());
+            }
+        }
+    }
+}
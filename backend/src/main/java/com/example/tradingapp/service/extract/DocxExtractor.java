@@ -0,0 +1,60 @@
+package com.example.tradingapp.service.extract;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+/**
+ * Word (.docx) text via POI XWPF. Spilled uploads are opened read-only from their file.
+ */
+@Component
+@Lazy
+public class DocxExtractor implements DocumentExtractor {
+
+    @Override
+    public Reader open(MultipartFile file, Path spill) throws IOException {
+        return Docx.open(file, spill);
+    }
+
+    @Override
+    public void warmUp() throws IOException {
+        Docx.warmUp();
+    }
+
+    // POI code, linked on the first upload of this type
+    private static final class Docx {
+
+        static Reader open(MultipartFile file, Path spill) throws IOException {
+            XWPFDocument document;
+            try {
+                document = spill != null
+                        ? new XWPFDocument(OPCPackage.open(spill.toFile(), PackageAccess.READ))
+                        : new XWPFDocument(file.getInputStream());
+            } catch (InvalidFormatException e) {
+                throw new IOException("Not a valid Word document: " + e.getMessage(), e);
+            }
+            try (document; XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+                return new StringReader(extractor.getText());
+            }
+        }
+
+        static void warmUp() throws IOException {
+            try (XWPFDocument document = new XWPFDocument()) {
+                document.createParagraph().createRun().setText("warm-up");
+                try (XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+                    extractor.getText();
+                }
+            }
+        }
+    }
+}
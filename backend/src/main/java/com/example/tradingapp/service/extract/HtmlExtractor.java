@@ -0,0 +1,46 @@
+package com.example.tradingapp.service.extract;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Visible text of an HTML page via Jsoup.
+ */
+@Component
+@Lazy
+public class HtmlExtractor implements DocumentExtractor {
+
+    @Override
+    public Reader open(MultipartFile file, Path spill) throws IOException {
+        return Html.open(file, spill);
+    }
+
+    @Override
+    public void warmUp() {
+        Html.warmUp();
+    }
+
+    // Jsoup code, linked on the first upload of this type
+    private static final class Html {
+
+        static Reader open(MultipartFile file, Path spill) throws IOException {
+            Document document = spill != null
+                    ? Jsoup.parse(spill.toFile(), Charset.defaultCharset().name())
+                    : Jsoup.parse(file.getInputStream(), Charset.defaultCharset().name(), "");
+            return new StringReader(document.text());
+        }
+
+        static void warmUp() {
+            Jsoup.parse("<p>warm-up</p>").text();
+        }
+    }
+}
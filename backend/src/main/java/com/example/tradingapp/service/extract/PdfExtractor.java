@@ -0,0 +1,54 @@
+package com.example.tradingapp.service.extract;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+/**
+ * PDF text via PDFBox. Spilled uploads are opened from their file, which PDFBox
+ * reads through a bounded buffer instead of an in-memory copy.
+ */
+@Component
+@Lazy
+public class PdfExtractor implements DocumentExtractor {
+
+    @Override
+    public Reader open(MultipartFile file, Path spill) throws IOException {
+        return Pdf.open(file, spill);
+    }
+
+    @Override
+    public void warmUp() throws IOException {
+        Pdf.warmUp();
+    }
+
+    // PDFBox code, linked on the first upload of this type
+    private static final class Pdf {
+
+        static Reader open(MultipartFile file, Path spill) throws IOException {
+            PDDocument document = spill != null
+                    ? Loader.loadPDF(spill.toFile())
+                    : Loader.loadPDF(new RandomAccessReadBuffer(file.getInputStream()));
+            try (document) {
+                return new StringReader(new PDFTextStripper().getText(document));
+            }
+        }
+
+        static void warmUp() throws IOException {
+            try (PDDocument document = new PDDocument()) {
+                document.addPage(new PDPage());
+                new PDFTextStripper().getText(document);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.tradingapp.service.extract;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Markdown and plain text, parsed line by line without being held in memory.
+ * Spilled uploads stream through a FileChannel.
+ */
+@Component
+public class TextExtractor implements DocumentExtractor {
+
+    @Override
+    public Reader open(MultipartFile file, Path spill) throws IOException {
+        if (spill != null) {
+            // Replace malformed input like InputStreamReader does instead of failing the upload
+            CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            return Channels.newReader(FileChannel.open(spill, StandardOpenOption.READ), decoder, -1);
+        }
+        return new InputStreamReader(file.getInputStream(), Charset.defaultCharset());
+    }
+}
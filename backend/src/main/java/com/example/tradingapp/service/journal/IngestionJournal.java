@@ -0,0 +1,394 @@
+package com.example.tradingapp.service.journal;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.service.FileProcessingService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of parsed statements.
+ *
+ * Every statement is appended as a binary record before the database is
+ * touched, so the transactions table can be rebuilt by replaying the latest
+ * statement of each depot, ordered by statement date. Record layout:
+ * [int payload length][int crc32][long sequence][byte type][payload].
+ * A zero type byte marks the end of the written part of a segment.
+ * A statement is replayed only once a COMMIT record with its sequence follows,
+ * so a statement whose transaction never completed (a crash between append and
+ * commit) is ignored.
+ *
+ * Once enough segments are sealed, the ones whose records are all committed
+ * to the database are compacted into a single segment holding only the
+ * latest statement per depot.
+ */
+@Component
+public class IngestionJournal {
+
+    static final byte STATEMENT = 1;
+    static final byte ABORT = 2;
+    static final byte COMMIT = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 1;
+    private static final String SUFFIX = ".journal";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int compactAfterSegments;
+    private final boolean fsync;
+
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Map<Path, Long> segmentMaxSequence = new HashMap<>();
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private Path activeSegment;
+    private MappedByteBuffer activeBuffer;
+    private long nextSequence = 1;
+
+    public IngestionJournal(@Value("${tradingapp.journal.enabled:false}") boolean enabled,
+                            @Value("${tradingapp.journal.dir:./data/journal}") String directory,
+                            @Value("${tradingapp.journal.segment-size:16777216}") int segmentSize,
+                            @Value("${tradingapp.journal.compact-after-segments:4}") int compactAfterSegments,
+                            @Value("${tradingapp.journal.fsync:true}") boolean fsync) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.compactAfterSegments = compactAfterSegments;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(sealedSegments::add);
+        }
+        for (Path segment : sealedSegments) {
+            long maxSequence = 0;
+            for (JournalRecord record : readSegment(segment)) {
+                maxSequence = Math.max(maxSequence, record.sequence);
+            }
+            segmentMaxSequence.put(segment, maxSequence);
+            nextSequence = Math.max(nextSequence, maxSequence + 1);
+        }
+        System.out.println("Opened ingestion journal " + directory + " with " + sealedSegments.size() + " segment(s)");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the statement and, when called inside a transaction, marks it
+     * durable or aborted once that transaction completes.
+     */
+    public void appendInTransaction(ParsedStatement statement) {
+        long sequence = append(statement);
+        if (sequence < 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markDurable(sequence);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    markDurable(sequence);
+                } else {
+                    markAborted(sequence);
+                }
+            }
+        });
+    }
+
+    /**
+     * Appends the statement and returns its sequence number, or -1 when the journal is disabled.
+     */
+    public synchronized long append(ParsedStatement statement) {
+        if (!enabled) {
+            return -1;
+        }
+        long sequence = nextSequence++;
+        writeRecord(STATEMENT, sequence, StatementCodec.encode(statement));
+        inFlight.add(sequence);
+        return sequence;
+    }
+
+    public synchronized void markDurable(long sequence) {
+        writeRecord(COMMIT, sequence, new byte[0]);
+        inFlight.remove(sequence);
+        compactIfNeeded();
+    }
+
+    public synchronized void markAborted(long sequence) {
+        writeRecord(ABORT, sequence, new byte[0]);
+        inFlight.remove(sequence);
+    }
+
+    /**
+     * Returns the most recent committed statement of every depot in the journal.
+     */
+    public synchronized List<ParsedStatement> readLatestStatements() {
+        if (!enabled) {
+            return List.of();
+        }
+        List<Path> segments = allSegments();
+        Map<String, JournalRecord> latest = latestByDepot(segments, committedSequences(segments));
+        List<ParsedStatement> statements = new ArrayList<>(latest.size());
+        for (JournalRecord record : latest.values()) {
+            statements.add(StatementCodec.decode(record.payload));
+        }
+        return statements;
+    }
+
+    /**
+     * Compacts sealed segments whose records are all committed once there are enough of them.
+     */
+    public synchronized void compactIfNeeded() {
+        if (!enabled || sealedSegments.size() < compactAfterSegments) {
+            return;
+        }
+        long watermark = inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+        List<Path> compactable = new ArrayList<>();
+        for (Path segment : sealedSegments) {
+            if (segmentMaxSequence.getOrDefault(segment, 0L) < watermark) {
+                compactable.add(segment);
+            }
+        }
+        if (compactable.size() < 2) {
+            return;
+        }
+        try {
+            compact(compactable);
+        } catch (IOException e) {
+            System.err.println("Journal compaction failed: " + e.getMessage());
+        }
+    }
+
+    synchronized int segmentCount() {
+        return allSegments().size();
+    }
+
+    private void compact(List<Path> segments) throws IOException {
+        Set<Long> committed = committedSequences(allSegments());
+        Map<String, JournalRecord> latest = latestByDepot(segments, committed);
+        // Commits of statements kept in the remaining segments must survive the compaction
+        Set<Long> carried = new HashSet<>();
+        for (Path segment : allSegments()) {
+            if (!segments.contains(segment)) {
+                for (JournalRecord record : readSegment(segment)) {
+                    if (record.type == STATEMENT && committed.contains(record.sequence)) {
+                        carried.add(record.sequence);
+                    }
+                }
+            }
+        }
+        long firstSequence = Long.MAX_VALUE;
+        long maxSequence = 0;
+        int size = carried.size() * HEADER_SIZE;
+        for (JournalRecord record : latest.values()) {
+            firstSequence = Math.min(firstSequence, record.sequence);
+            maxSequence = Math.max(maxSequence, record.sequence);
+            size += 2 * HEADER_SIZE + record.payload.length;
+        }
+
+        Path target = directory.resolve(String.format("%019d-c%s", firstSequence == Long.MAX_VALUE ? 0 : firstSequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (JournalRecord record : latest.values()) {
+            putRecord(buffer, record.type, record.sequence, record.payload);
+            putRecord(buffer, COMMIT, record.sequence, new byte[0]);
+        }
+        for (long sequence : carried) {
+            putRecord(buffer, COMMIT, sequence, new byte[0]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path segment : segments) {
+            if (!segment.equals(target)) {
+                Files.deleteIfExists(segment);
+            }
+            sealedSegments.remove(segment);
+            segmentMaxSequence.remove(segment);
+        }
+        sealedSegments.add(0, target);
+        segmentMaxSequence.put(target, maxSequence);
+        System.out.println("Compacted " + segments.size() + " journal segment(s) into " + target.getFileName()
+                + " (" + latest.size() + " depot(s))");
+    }
+
+    private void writeRecord(byte type, long sequence, byte[] payload) {
+        int needed = HEADER_SIZE + payload.length + 4;
+        if (activeBuffer == null || activeBuffer.remaining() < needed) {
+            rollSegment(Math.max(segmentSize, needed));
+        }
+        putRecord(activeBuffer, type, sequence, payload);
+        if (fsync) {
+            activeBuffer.force();
+        }
+        segmentMaxSequence.merge(activeSegment, sequence, Math::max);
+    }
+
+    private void rollSegment(int size) {
+        if (activeSegment != null) {
+            sealedSegments.add(activeSegment);
+        }
+        activeSegment = directory.resolve(String.format("%019d%s", nextSequence, SUFFIX));
+        for (int attempt = 1; Files.exists(activeSegment); attempt++) {
+            activeSegment = directory.resolve(String.format("%019d-%d%s", nextSequence, attempt, SUFFIX));
+        }
+        try (FileChannel channel = FileChannel.open(activeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + activeSegment, e);
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte type, long sequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(sequence);
+        buffer.put(type);
+        buffer.put(payload);
+    }
+
+    private List<Path> allSegments() {
+        List<Path> segments = new ArrayList<>(sealedSegments);
+        if (activeSegment != null) {
+            segments.add(activeSegment);
+        }
+        return segments;
+    }
+
+    private static Set<Long> committedSequences(List<Path> segments) {
+        Set<Long> committed = new HashSet<>();
+        for (Path segment : segments) {
+            for (JournalRecord record : readSegment(segment)) {
+                if (record.type == COMMIT) {
+                    committed.add(record.sequence);
+                }
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * Picks each depot's latest statement the way uploads pick the latest snapshot:
+     * in ingestion order, a statement replaces the current one unless both dates
+     * are known and it is dated before it.
+     */
+    private static Map<String, JournalRecord> latestByDepot(List<Path> segments, Set<Long> committed) {
+        List<JournalRecord> statements = new ArrayList<>();
+        for (Path segment : segments) {
+            for (JournalRecord record : readSegment(segment)) {
+                if (record.type == STATEMENT && committed.contains(record.sequence)) {
+                    statements.add(record);
+                }
+            }
+        }
+        statements.sort(Comparator.comparingLong(JournalRecord::sequence));
+        Map<String, JournalRecord> latest = new LinkedHashMap<>();
+        for (JournalRecord record : statements) {
+            latest.merge(record.depot(), record, (current, next) -> {
+                LocalDate currentDay = FileProcessingService.parseStatementDay(current.statementDate());
+                LocalDate nextDay = FileProcessingService.parseStatementDay(next.statementDate());
+                return currentDay == null || nextDay == null || !nextDay.isBefore(currentDay) ? next : current;
+            });
+        }
+        return latest;
+    }
+
+    /**
+     * Reads records until the end marker, the end of the file or the first torn record.
+     */
+    private static List<JournalRecord> readSegment(Path segment) {
+        List<JournalRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                long sequence = buffer.getLong();
+                byte type = buffer.get();
+                if (type == 0 || length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    System.err.println("Journal segment " + segment.getFileName() + " has a torn record at sequence " + sequence);
+                    break;
+                }
+                records.add(new JournalRecord(type, sequence, payload));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read journal segment " + segment, e);
+        }
+        return records;
+    }
+
+    private record JournalRecord(byte type, long sequence, byte[] payload) {
+        String depot() {
+            // The depot is the first string of the payload
+            try {
+                return new DataInputStream(new ByteArrayInputStream(payload)).readUTF();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        String statementDate() {
+            // The statement date follows the depot
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                in.readUTF();
+                return in.readUTF();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tradingapp.service.journal;
+
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.service.FileProcessingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the transactions table from the ingestion journal on startup
+ * when the database came up empty (e.g. after losing the database file).
+ * Runs before a backfill, which would otherwise leave the table non-empty.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JournalReplayRunner implements ApplicationRunner {
+
+    @Autowired
+    private IngestionJournal ingestionJournal;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Value("${tradingapp.journal.replay-on-startup:true}")
+    private boolean replayOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (ingestionJournal.isEnabled() && replayOnStartup && transactionRepository.count() == 0) {
+            fileProcessingService.rebuildFromJournal();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.tradingapp.service.journal;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Compact binary encoding of a parsed statement.
+ *
+ * Layout: depot, statement date, position count, then per position
+ * asset, ISIN, ticker, asset type (nullable UTF strings) followed by
+ * quantity, unit price and total value as raw doubles, then the stated
+ * position count and total value (nullable). Client id, transaction id and
+ * date are derived from the header on decode. Payloads written before the
+ * stated figures were added end after the positions and decode without them.
+ */
+public final class StatementCodec {
+
+    private StatementCodec() {
+    }
+
+    public static byte[] encode(ParsedStatement statement) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + statement.getPositions().size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(statement.getDepot());
+            out.writeUTF(statement.getStatementDate());
+            out.writeInt(statement.getPositions().size());
+            for (Transaction position : statement.getPositions()) {
+                writeNullable(out, position.getAsset());
+                writeNullable(out, position.getIsin());
+                writeNullable(out, position.getTicker());
+                writeNullable(out, position.getAssetType());
+                out.writeDouble(position.getQuantity());
+                out.writeDouble(position.getUnitPrice());
+                out.writeDouble(position.getTotalValue());
+            }
+            out.writeBoolean(statement.getStatedPositionCount() != null);
+            if (statement.getStatedPositionCount() != null) {
+                out.writeInt(statement.getStatedPositionCount());
+            }
+            out.writeBoolean(statement.getStatedTotalValue() != null);
+            if (statement.getStatedTotalValue() != null) {
+                out.writeDouble(statement.getStatedTotalValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ParsedStatement decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            ParsedStatement statement = new ParsedStatement(in.readUTF(), in.readUTF());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Transaction position = new Transaction();
+                position.setClientId(statement.getDepot());
+                position.setDate(statement.getStatementDate());
+                position.setAsset(readNullable(in));
+                position.setIsin(readNullable(in));
+                position.setTransactionId(position.getIsin());
+                position.setTicker(readNullable(in));
+                position.setAssetType(readNullable(in));
+                position.setQuantity(in.readDouble());
+                position.setUnitPrice(in.readDouble());
+                position.setTotalValue(in.readDouble());
+                statement.addPosition(position);
+            }
+            if (in.available() > 0) {
+                statement.setStatedPositionCount(in.readBoolean() ? in.readInt() : null);
+                statement.setStatedTotalValue(in.readBoolean() ? in.readDouble() : null);
+            }
+            return statement;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.tradingapp.service.parser;
+
+/**
+ * Number and asset type helpers shared by the statement parsers.
+ */
+public final class ParserSupport {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    private ParserSupport() {
+    }
+
+    public static String detectAssetType(String assetName) {
+        String name = assetName.toLowerCase();
+
+        if (name.contains("etf")) {
+            return "ETF";
+        } else if (name.contains("aktie") || name.contains("stock") || name.contains("shares") || name.contains("inc.") || name.contains("ag") || name.contains("plc") || name.contains("adr")) {
+            return "Stock";
+        } else if (name.contains("gold")) {
+            return "Commodity";
+        } else if (name.contains("trust")) {
+            return "Trust";
+        } else if (name.contains("corp")) {
+            return "Corporation";
+        } else {
+            return "Security";
+        }
+    }
+
+    public static double parseGermanNumber(String numberStr) {
+        // Smart number parser that handles both US and German formats
+        // German format: 1.234,56 (dot for thousands, comma for decimal)
+        // US format: 1,234.56 (comma for thousands, dot for decimal)
+
+        String cleaned = numberStr.trim();
+
+        // Count dots and commas to determine format
+        long dotCount = cleaned.chars().filter(ch -> ch == '.').count();
+        long commaCount = cleaned.chars().filter(ch -> ch == ',').count();
+
+        if (commaCount > 0 && dotCount > 0) {
+            // Mixed: determine which is decimal separator
+            int lastDotPos = cleaned.lastIndexOf('.');
+            int lastCommaPos = cleaned.lastIndexOf(',');
+
+            if (lastCommaPos > lastDotPos) {
+                // German format: 1.234,56
+                cleaned = cleaned.replace(".", "").replace(",", ".");
+            } else {
+                // US format: 1,234.56
+                cleaned = cleaned.replace(",", "");
+            }
+        } else if (commaCount > 0) {
+            // Only commas: German decimal format (123,45)
+            cleaned = cleaned.replace(",", ".");
+        }
+        // If only dots or no separators, treat as US format (already correct)
+
+        return Double.parseDouble(cleaned);
+    }
+
+    /**
+     * {@link #parseGermanNumber(String)} over {@code text[start, end)} without
+     * creating a String for plain numbers of up to 15 digits. Those are exact:
+     * the digits and the power of ten are both exact doubles, so one division
+     * rounds like {@link Double#parseDouble}. Anything else takes the String path.
+     */
+    public static double parseGermanNumber(CharSequence text, int start, int end) {
+        int dots = 0;
+        int commas = 0;
+        int lastDot = -1;
+        int lastComma = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                dots++;
+                lastDot = i;
+            } else if (c == ',') {
+                commas++;
+                lastComma = i;
+            }
+        }
+        // Same separator rules as the String version
+        char decimal = commas > 0 && (dots == 0 || lastComma > lastDot) ? ',' : '.';
+        int decimals = decimal == ',' ? commas : dots;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == decimal && decimals == 1) {
+                fractionDigits = 0;
+            } else if (c != '.' && c != ',' || c == decimal) {
+                // Exponents, stray characters or repeated decimal separators
+                return parseGermanNumber(text.subSequence(start, end).toString());
+            }
+        }
+        if (digits == 0 || digits > 15) {
+            return parseGermanNumber(text.subSequence(start, end).toString());
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+}
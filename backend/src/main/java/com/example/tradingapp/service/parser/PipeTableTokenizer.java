@@ -0,0 +1,84 @@
+package com.example.tradingapp.service.parser;
+
+/**
+ * Splits a markdown table row into cells without creating substrings: each cell
+ * is an offset pair into the original {@link CharSequence}, with surrounding
+ * whitespace excluded. Cells are counted the way {@code row.split("\\|")} counts
+ * them, so a row "| a | b |" has two cells and a trailing empty cell is dropped.
+ * One instance is reused for every row of a statement.
+ */
+final class PipeTableTokenizer {
+
+    private CharSequence text;
+    private int[] bounds = new int[32];
+    private int cells;
+
+    /**
+     * Returns the end of the row starting at {@code from}: the next "||", which
+     * separates rows concatenated on one line, or {@code to}.
+     */
+    static int rowEnd(CharSequence text, int from, int to) {
+        for (int i = from; i < to - 1; i++) {
+            if (text.charAt(i) == '|' && text.charAt(i + 1) == '|') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Tokenizes {@code text[from, to)}, which must already be trimmed. A leading
+     * pipe is optional. Returns the number of cells.
+     */
+    int tokenize(CharSequence text, int from, int to) {
+        this.text = text;
+        cells = 0;
+        int cellStart = from < to && text.charAt(from) == '|' ? from + 1 : from;
+        for (int i = cellStart; i < to; i++) {
+            if (text.charAt(i) == '|') {
+                addCell(cellStart, i);
+                cellStart = i + 1;
+            }
+        }
+        if (cellStart < to) {
+            addCell(cellStart, to);
+        }
+        return cells;
+    }
+
+    int start(int cell) {
+        return bounds[2 * cell];
+    }
+
+    int end(int cell) {
+        return bounds[2 * cell + 1];
+    }
+
+    boolean isEmpty(int cell) {
+        return start(cell) == end(cell);
+    }
+
+    /**
+     * Materializes one cell; only done for the fields a position stores.
+     */
+    String string(int cell) {
+        return text.subSequence(start(cell), end(cell)).toString();
+    }
+
+    private void addCell(int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (2 * cells + 2 > bounds.length) {
+            int[] grown = new int[bounds.length * 2];
+            System.arraycopy(bounds, 0, grown, 0, bounds.length);
+            bounds = grown;
+        }
+        bounds[2 * cells] = start;
+        bounds[2 * cells + 1] = end;
+        cells++;
+    }
+}
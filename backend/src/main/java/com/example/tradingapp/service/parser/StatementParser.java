@@ -0,0 +1,29 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+
+import java.io.IOException;
+
+/**
+ * A broker statement layout. Parsers are Spring components picked up by
+ * {@link StatementParserRegistry}; their {@code @Order} decides which one is
+ * asked first, and the last one is the fallback when no signature matches.
+ */
+public interface StatementParser {
+
+    /**
+     * Short name for logging.
+     */
+    String name();
+
+    /**
+     * Cheap signature check on the first few KB of the extracted text.
+     */
+    boolean supports(CharSequence head);
+
+    /**
+     * Reads the statement line by line and adds its positions. Depot and date
+     * are collected by the reader and applied to the positions afterwards.
+     */
+    void parse(StatementReader reader, ParsedStatement statement) throws IOException;
+}
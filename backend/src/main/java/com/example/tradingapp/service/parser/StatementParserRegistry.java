@@ -0,0 +1,68 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Chooses a {@link StatementParser} from the first {@value #PROBE_SIZE} characters
+ * of a statement and streams the rest of it through that parser. Parsers are
+ * probed in their {@code @Order}; the last one is used when none matches.
+ */
+@Component
+public class StatementParserRegistry {
+
+    static final int PROBE_SIZE = 8192;
+
+    private final List<StatementParser> parsers;
+
+    public StatementParserRegistry(List<StatementParser> parsers) {
+        if (parsers.isEmpty()) {
+            throw new IllegalArgumentException("At least one statement parser is required");
+        }
+        this.parsers = List.copyOf(parsers);
+    }
+
+    public ParsedStatement parse(Reader content) throws IOException {
+        BufferedReader reader = new BufferedReader(content, PROBE_SIZE * 2);
+        StatementParser parser = select(probe(reader));
+
+        ParsedStatement statement = new ParsedStatement();
+        parser.parse(new StatementReader(reader, statement), statement);
+        for (Transaction position : statement.getPositions()) {
+            position.setClientId(statement.getDepot());
+            position.setDate(statement.getStatementDate());
+        }
+        System.out.println("Parsed depot: " + statement.getDepot() + ", date: " + statement.getStatementDate()
+                + ", " + statement.getPositions().size() + " position(s) with " + parser.name());
+        return statement;
+    }
+
+    StatementParser select(CharSequence head) {
+        for (StatementParser parser : parsers) {
+            if (parser.supports(head)) {
+                return parser;
+            }
+        }
+        return parsers.get(parsers.size() - 1);
+    }
+
+    /**
+     * Reads up to PROBE_SIZE characters and rewinds the reader to the start.
+     */
+    private static CharSequence probe(BufferedReader reader) throws IOException {
+        reader.mark(PROBE_SIZE);
+        CharBuffer head = CharBuffer.allocate(PROBE_SIZE);
+        while (head.hasRemaining() && reader.read(head) > 0) {
+            // keep filling until the probe is full or the content ends
+        }
+        reader.reset();
+        return head.flip();
+    }
+}
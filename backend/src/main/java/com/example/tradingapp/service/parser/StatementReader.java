@@ -0,0 +1,79 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Line source for parsers. Every line read is checked for the statement header
+ * ({@code **Depot:**} / {@code **Datum:**}) and the summary figures
+ * ({@code **Anzahl Positionen:**} / {@code **Gesamtwert:**}), wherever they
+ * appear in the document.
+ */
+public class StatementReader {
+
+    private static final String DEPOT_MARKER = "**Depot:**";
+    private static final String DATE_MARKER = "**Datum:**";
+    private static final String POSITION_COUNT_MARKER = "**Anzahl Positionen:**";
+    private static final String TOTAL_VALUE_MARKER = "**Gesamtwert:**";
+
+    private final BufferedReader reader;
+    private final ParsedStatement statement;
+    private int lineNumber;
+
+    StatementReader(BufferedReader reader, ParsedStatement statement) {
+        this.reader = reader;
+        this.statement = statement;
+    }
+
+    /**
+     * Returns the next raw line, or null at the end of the content.
+     */
+    public String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        if (line.contains("**")) {
+            String trimmed = line.trim();
+            if (trimmed.contains(DEPOT_MARKER)) {
+                statement.setDepot(trimmed.replace(DEPOT_MARKER, "").trim());
+            } else if (trimmed.contains(DATE_MARKER)) {
+                statement.setStatementDate(trimmed.replace(DATE_MARKER, "").trim());
+            } else if (trimmed.contains(POSITION_COUNT_MARKER)) {
+                Double count = summaryFigure(trimmed, POSITION_COUNT_MARKER);
+                statement.setStatedPositionCount(count == null ? null : (int) Math.round(count));
+            } else if (trimmed.contains(TOTAL_VALUE_MARKER)) {
+                statement.setStatedTotalValue(summaryFigure(trimmed, TOTAL_VALUE_MARKER));
+            }
+        }
+        return line;
+    }
+
+    /**
+     * The number after the marker, without emphasis and currency ("**93.118,79 EUR**").
+     * An unreadable figure is reported on the statement and read as absent.
+     */
+    private Double summaryFigure(String line, String marker) {
+        String figure = line.substring(line.indexOf(marker) + marker.length())
+                .replace("*", "").replace("EUR", "").replace("€", "").trim();
+        try {
+            return ParserSupport.parseGermanNumber(figure);
+        } catch (NumberFormatException e) {
+            String issue = "Unreadable summary figure at line " + lineNumber + ": '" + line + "'";
+            if (statement.addIssue(issue)) {
+                System.err.println(issue);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One-based number of the line last returned by {@link #readLine()}.
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+}
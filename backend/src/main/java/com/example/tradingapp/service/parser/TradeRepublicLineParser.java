@@ -0,0 +1,156 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static com.example.tradingapp.service.parser.ParserSupport.detectAssetType;
+import static com.example.tradingapp.service.parser.ParserSupport.parseGermanNumber;
+
+/**
+ * Trade Republic depot statement as extracted from the PDF: each position
+ * starts with "&lt;quantity&gt; Stk. &lt;name&gt;", followed by the ISIN line,
+ * optional custody lines, the price, the price date and the value.
+ * Registered last, so it is also the fallback layout.
+ *
+ * Parsed by a state machine that looks at every line once. A block that does
+ * not complete within {@value #MAX_BLOCK_LINES} lines, hits an unparseable
+ * number or is interrupted by the next " Stk. " anchor is reported on the
+ * statement and skipped; parsing resumes at the next anchor.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class TradeRepublicLineParser implements StatementParser {
+
+    static final String POSITION_MARKER = " Stk. ";
+    static final int MAX_BLOCK_LINES = 12;
+
+    private enum State { SEEK_POSITION, ISIN, PRICE, DATE, VALUE }
+
+    @Override
+    public String name() {
+        return "trade-republic-lines";
+    }
+
+    @Override
+    public boolean supports(CharSequence head) {
+        return head.toString().contains(POSITION_MARKER);
+    }
+
+    @Override
+    public void parse(StatementReader reader, ParsedStatement statement) throws IOException {
+        Block block = new Block();
+        State state = State.SEEK_POSITION;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (state != State.SEEK_POSITION) {
+                if (line.contains(POSITION_MARKER)) {
+                    reportMalformed(statement, block, "next position starts before the block is complete");
+                    state = State.SEEK_POSITION;
+                } else if (++block.lines > MAX_BLOCK_LINES) {
+                    reportMalformed(statement, block, "no complete position within " + MAX_BLOCK_LINES + " lines");
+                    state = State.SEEK_POSITION;
+                    continue;
+                } else if (line.isEmpty()) {
+                    continue;
+                }
+            }
+            try {
+                state = advance(state, line, block, reader.lineNumber(), statement);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                reportMalformed(statement, block, "unreadable line '" + line + "'");
+                state = State.SEEK_POSITION;
+            }
+        }
+        if (state != State.SEEK_POSITION) {
+            reportMalformed(statement, block, "statement ends inside the block");
+        }
+        if (statement.getIssueCount() > statement.getIssues().size()) {
+            System.err.println("Skipped " + statement.getIssueCount() + " malformed position(s) in total");
+        }
+    }
+
+    private State advance(State state, String line, Block block, int lineNumber, ParsedStatement statement) {
+        switch (state) {
+            case SEEK_POSITION:
+                int marker = line.indexOf(POSITION_MARKER);
+                if (marker < 0) {
+                    return State.SEEK_POSITION;
+                }
+                block.start(lineNumber);
+                block.asset = line.substring(marker + POSITION_MARKER.length()).trim();
+                block.quantity = parseGermanNumber(line.substring(0, marker));
+                return State.ISIN;
+            case ISIN:
+                // Asset names may wrap over several lines before the ISIN
+                if (!line.startsWith("ISIN:")) {
+                    return State.ISIN;
+                }
+                block.isin = line.substring(5).trim();
+                if (block.isin.isEmpty()) {
+                    throw new IllegalArgumentException("Empty ISIN");
+                }
+                return State.PRICE;
+            case PRICE:
+                if (line.startsWith("Lagerland:") || line.contains("Wertpapierrechnung")) {
+                    return State.PRICE;
+                }
+                block.unitPrice = parseGermanNumber(line);
+                return State.DATE;
+            case DATE:
+                // Price date, should be the statement date
+                return State.VALUE;
+            case VALUE:
+            default:
+                double totalValue = parseGermanNumber(line);
+                statement.addPosition(block.toTransaction(totalValue));
+                return State.SEEK_POSITION;
+        }
+    }
+
+    private static void reportMalformed(ParsedStatement statement, Block block, String reason) {
+        String issue = "Skipped position at line " + block.startLine + " (" + block.asset + "): " + reason;
+        if (statement.addIssue(issue)) {
+            System.err.println(issue);
+        }
+    }
+
+    /**
+     * Fields of the position currently being read.
+     */
+    private static final class Block {
+        int startLine;
+        int lines;
+        String asset;
+        String isin;
+        double quantity;
+        double unitPrice;
+
+        void start(int lineNumber) {
+            startLine = lineNumber;
+            lines = 0;
+            asset = "";
+            isin = "";
+            quantity = 0;
+            unitPrice = 0;
+        }
+
+        Transaction toTransaction(double totalValue) {
+            Transaction transaction = new Transaction();
+            // Don't set ID - let JPA generate it automatically
+            transaction.setTransactionId(isin);
+            transaction.setAsset(asset);
+            transaction.setIsin(isin);
+            transaction.setAssetType(detectAssetType(asset));
+            transaction.setQuantity((int) Math.round(quantity));
+            transaction.setUnitPrice(unitPrice);
+            transaction.setTotalValue(totalValue);
+            return transaction;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static com.example.tradingapp.service.parser.ParserSupport.detectAssetType;
+import static com.example.tradingapp.service.parser.ParserSupport.parseGermanNumber;
+
+/**
+ * Trade Republic depot statement as a markdown table headed by "| STK. / Nominale |".
+ * Handles the 7-column legacy layout (ISIN inside the name) and the 8-column
+ * layout with separate ISIN, symbol and type columns.
+ *
+ * Rows are tokenized in place by {@link PipeTableTokenizer}; numbers are parsed
+ * from the line and only the strings a position stores are created.
+ */
+@Component
+@Order(100)
+public class TradeRepublicTableParser implements StatementParser {
+
+    static final String TABLE_HEADER = "| STK. / Nominale |";
+
+    @Override
+    public String name() {
+        return "trade-republic-table";
+    }
+
+    @Override
+    public boolean supports(CharSequence head) {
+        return head.toString().contains(TABLE_HEADER);
+    }
+
+    @Override
+    public void parse(StatementReader reader, ParsedStatement statement) throws IOException {
+        PipeTableTokenizer tokenizer = new PipeTableTokenizer();
+        boolean inTable = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith(TABLE_HEADER)) {
+                inTable = true;
+                continue;
+            }
+            if (inTable && line.startsWith("|") && !line.startsWith("|---") && !line.contains("STK. / Nominale")) {
+                // Rows may be concatenated on one line with "||"
+                int from = 0;
+                while (from <= line.length()) {
+                    int to = PipeTableTokenizer.rowEnd(line, from, line.length());
+                    processTableRow(line, trimStart(line, from, to), trimEnd(line, from, to), tokenizer, statement);
+                    from = to + 2;
+                }
+            }
+            if (line.isEmpty() && inTable) {
+                inTable = false;
+            }
+        }
+    }
+
+    private void processTableRow(String line, int from, int to, PipeTableTokenizer cells, ParsedStatement statement) {
+        if (from >= to) {
+            return;
+        }
+        // The cell count plus the text before the first pipe, as String.split("\\|") counts parts
+        int parts = cells.tokenize(line, from, to) + 1;
+        if (parts >= 8) {
+            // Integration test format: | Quantity | Asset | ISIN | Symbol | Type | Price | Value |
+            String asset = name(cells, 1);
+            String isin = cells.string(2);
+            String assetType = detectAssetType(asset);
+
+            // Handle legacy format with ISIN embedded in name (for backward compatibility)
+            if (isin.isEmpty() && asset.contains("ISIN: ")) {
+                String[] nameParts = asset.split("ISIN: ");
+                asset = nameParts[0].trim();
+                if (nameParts.length > 1) {
+                    isin = nameParts[1].split(" ")[0].trim();
+                }
+            }
+            addPosition(line, from, to, cells, statement, asset, isin, 3, assetType, 5, 6);
+        } else if (parts >= 7) {
+            // Legacy format: | Quantity | Asset with ISIN | Ticker | Price | Date | Value |
+            String nameStr = name(cells, 1);
+
+            // Extract ISIN and asset type from name
+            String isin = "";
+            String assetType = "";
+            String[] nameParts = nameStr.split("ISIN: ");
+            String asset = nameParts[0].trim();
+            if (nameParts.length > 1) {
+                isin = nameParts[1].split(" ")[0].trim();
+                assetType = detectAssetType(asset);
+            }
+            addPosition(line, from, to, cells, statement, asset, isin, 2, assetType, 3, 5);
+        } else {
+            System.out.println("Skipping row with insufficient columns: " + rowLine(line, from, to) + " (parts: " + parts + ")");
+        }
+    }
+
+    private void addPosition(String line, int from, int to, PipeTableTokenizer cells, ParsedStatement statement,
+                             String asset, String isin, int tickerCell, String assetType, int priceCell, int valueCell) {
+        try {
+            double quantity = parseGermanNumber(line, cells.start(0), cells.end(0));
+            double unitPrice = parseGermanNumber(line, cells.start(priceCell), cells.end(priceCell));
+            double totalValue = parseGermanNumber(line, cells.start(valueCell), cells.end(valueCell));
+
+            Transaction transaction = new Transaction();
+            // Don't set ID - let JPA generate it automatically
+            transaction.setTransactionId(isin);
+            transaction.setAsset(asset);
+            transaction.setIsin(isin);
+            transaction.setTicker(cells.string(tickerCell));
+            transaction.setAssetType(assetType);
+            transaction.setQuantity(quantity);
+            transaction.setUnitPrice(unitPrice);
+            transaction.setTotalValue(totalValue);
+            statement.addPosition(transaction);
+        } catch (NumberFormatException e) {
+            String issue = "Error parsing table row: " + rowLine(line, from, to) + " - Error: " + e.getMessage();
+            if (statement.addIssue(issue)) {
+                System.err.println(issue);
+            }
+        }
+    }
+
+    private static String name(PipeTableTokenizer cells, int cell) {
+        String name = cells.string(cell);
+        return name.indexOf('<') >= 0 || name.indexOf('\n') >= 0
+                ? name.replace("<br>", " ").replace("\n", " ")
+                : name;
+    }
+
+    /**
+     * The row as it appeared, with a leading pipe; only built for log messages.
+     */
+    private static String rowLine(String line, int from, int to) {
+        return (line.charAt(from) == '|' ? "" : "|") + line.substring(from, to);
+    }
+
+    private static int trimStart(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(String line, int from, int to) {
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
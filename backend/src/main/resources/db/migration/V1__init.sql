@@ -0,0 +1,25 @@
+create table clients (
+    id varchar(255) not null,
+    birth_date varchar(255),
+    depot varchar(255),
+    email varchar(255),
+    name varchar(255),
+    primary key (id)
+);
+
+create table transactions (
+    id bigint generated by default as identity,
+    asset varchar(255),
+    asset_type varchar(255),
+    client_id varchar(255),
+    date varchar(255),
+    isin varchar(255),
+    quantity float(53) not null,
+    ticker varchar(255),
+    total_value float(53) not null,
+    transaction_id varchar(255),
+    unit_price float(53) not null,
+    primary key (id)
+);
+
+create index idx_transactions_client_id on transactions (client_id);
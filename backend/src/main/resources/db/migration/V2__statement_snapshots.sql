@@ -0,0 +1,16 @@
+create table statement_snapshots (
+    id bigint generated by default as identity,
+    client_id varchar(255),
+    statement_date varchar(255),
+    statement_day date,
+    version integer not null,
+    latest boolean not null,
+    position_count integer not null,
+    total_value float(53) not null,
+    ingested_at timestamp(6),
+    payload blob,
+    primary key (id),
+    constraint ux_statement_snapshots_client_date unique (client_id, statement_date)
+);
+
+create index idx_statement_snapshots_client_latest on statement_snapshots (client_id, latest);
@@ -0,0 +1 @@
+create index idx_transactions_isin_client on transactions (isin, client_id);
@@ -0,0 +1,31 @@
+create table instruments (
+    id bigint generated by default as identity,
+    asset varchar(255),
+    asset_type varchar(255),
+    isin varchar(255),
+    ticker varchar(255),
+    primary key (id),
+    constraint ux_instruments_isin unique (isin)
+);
+
+insert into instruments (isin, asset, ticker, asset_type)
+select isin, max(asset), max(ticker), max(asset_type) from transactions
+where isin is not null and isin <> '' group by isin;
+
+insert into instruments (asset, ticker, asset_type)
+select asset, max(ticker), max(asset_type) from transactions
+where (isin is null or isin = '') and asset is not null group by asset;
+
+alter table transactions add column instrument_id bigint;
+
+update transactions t set instrument_id = (select i.id from instruments i where i.isin = t.isin)
+where t.isin is not null and t.isin <> '';
+
+update transactions t set instrument_id = (select min(i.id) from instruments i where i.isin is null and i.asset = t.asset)
+where t.isin is null or t.isin = '';
+
+alter table transactions drop column asset;
+alter table transactions drop column ticker;
+alter table transactions drop column asset_type;
+
+alter table transactions add constraint fk_transactions_instrument foreign key (instrument_id) references instruments (id);
@@ -0,0 +1,5 @@
+-- Transaction ids come from a pooled sequence so inserts can be batched. Hibernate's pooled
+-- optimizer treats each value as the top of a block of 50 ids, so the first block starts
+-- right after the existing rows. The identity column is kept but no longer used for new rows.
+create sequence transactions_seq start with 1 increment by 50;
+alter sequence transactions_seq restart with (select coalesce(max(id), 0) + 50 from transactions);
@@ -0,0 +1,28 @@
+create table depot_summaries (
+    client_id varchar(255) not null,
+    statement_date varchar(255),
+    position_count integer not null,
+    total_value float(53) not null,
+    stated_position_count integer,
+    stated_total_value float(53),
+    alert varchar(1000),
+    primary key (client_id)
+);
+
+create table depot_summary_asset_types (
+    client_id varchar(255) not null,
+    asset_type varchar(255) not null,
+    total_value float(53),
+    primary key (client_id, asset_type),
+    constraint fk_depot_summary_asset_types_summary foreign key (client_id) references depot_summaries (client_id)
+);
+
+-- Depots ingested before summaries existed: totals of their current positions, nothing stated to check against
+insert into depot_summaries (client_id, statement_date, position_count, total_value)
+select client_id, max(date), count(*), sum(total_value) from transactions
+where client_id is not null group by client_id;
+
+insert into depot_summary_asset_types (client_id, asset_type, total_value)
+select t.client_id, coalesce(nullif(i.asset_type, ''), 'Security'), sum(t.total_value)
+from transactions t left join instruments i on i.id = t.instrument_id
+where t.client_id is not null group by t.client_id, coalesce(nullif(i.asset_type, ''), 'Security');
@@ -0,0 +1,184 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.service.analytics.PositionColumnStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for AnalyticsController
+ * Not transactional: the column store is only updated after an upload commits.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AnalyticsControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private PositionColumnStore positionColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+        positionColumnStore.rebuild();
+    }
+
+    private void upload(String depot, String rows) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** 2024-02-01
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, rows);
+        mockMvc.perform(multipart("/api/upload")
+                        .file(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that uploads are reflected in the cross-depot aggregates
+     */
+    @Test
+    void testAggregatesFollowUploads() throws Exception {
+        upload("AN001", """
+            | 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |
+            | 2.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 400.00 |""");
+        upload("AN002", "| 5.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 500.00 |");
+
+        mockMvc.perform(get("/api/analytics/top-holdings").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].isin", is("IE00B4L5Y983")))
+                .andExpect(jsonPath("$[0].positions", is(2)))
+                .andExpect(jsonPath("$[0].totalValue", is(1500.0)));
+
+        mockMvc.perform(get("/api/analytics/allocation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ETF", is(1500.0)))
+                .andExpect(jsonPath("$.Stock", is(400.0)));
+    }
+
+    /**
+     * Test GET /api/analytics/depot-holdings: only the requested depots are aggregated
+     */
+    @Test
+    void testDepotGroupHoldings() throws Exception {
+        upload("GRP001", "| 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |");
+        upload("GRP002", """
+            | 20.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 2000.00 |
+            | 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |""");
+        upload("GRP003", "| 99.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 19800.00 |");
+
+        mockMvc.perform(get("/api/analytics/depot-holdings").param("depots", "GRP001,GRP002"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].isin", is("IE00B4L5Y983")))
+                .andExpect(jsonPath("$[0].asset", is("iShares Core MSCI World ETF")))
+                .andExpect(jsonPath("$[0].positions", is(2)))
+                .andExpect(jsonPath("$[0].quantity", is(30.0)))
+                .andExpect(jsonPath("$[1].totalValue", is(200.0)));
+    }
+
+    /**
+     * Test that a rebuild from the transactions table yields the same positions
+     */
+    @Test
+    void testRebuildFromDatabase() throws Exception {
+        upload("AN003", "| 3.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 600.00 |");
+
+        positionColumnStore.rebuild();
+
+        assertEquals(1, positionColumnStore.positionCount());
+        assertEquals(600.0, positionColumnStore.totalValueByAssetType().get("Stock"), 0.001);
+    }
+
+    /**
+     * Test GET /api/holdings/{isin}: depots holding the ISIN and total exposure
+     */
+    @Test
+    void testHoldingsByIsin() throws Exception {
+        upload("HOLD001", "| 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |");
+        upload("HOLD002", """
+            | 30.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 3000.00 |
+            | 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |""");
+
+        mockMvc.perform(get("/api/holdings/{isin}", "IE00B4L5Y983"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isin", is("IE00B4L5Y983")))
+                .andExpect(jsonPath("$.depotCount", is(2)))
+                .andExpect(jsonPath("$.totalQuantity", is(40.0)))
+                .andExpect(jsonPath("$.totalValue", is(4000.0)))
+                .andExpect(jsonPath("$.depots[0].clientId", is("HOLD002")))
+                .andExpect(jsonPath("$.depots[1].clientId", is("HOLD001")));
+
+        mockMvc.perform(get("/api/holdings/{isin}", "XX0000000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.depotCount", is(0)))
+                .andExpect(jsonPath("$.depots", hasSize(0)));
+    }
+
+    /**
+     * Test GET /api/exposure grouped by asset type and ISIN, updated on re-upload
+     */
+    @Test
+    void testExposureGroupedAndIncrementallyUpdated() throws Exception {
+        upload("EXP001", """
+            | 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |
+            | 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 3000.00 | 3000.00 |""");
+
+        mockMvc.perform(get("/api/exposure").param("groupBy", "assetType"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].key", is("Stock")))
+                .andExpect(jsonPath("$[0].share", is(0.75)));
+
+        // Replacing the depot's statement adjusts the running totals
+        upload("EXP001", "| 20.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 2000.00 |");
+
+        mockMvc.perform(get("/api/exposure").param("groupBy", "isin").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].key", is("IE00B4L5Y983")))
+                .andExpect(jsonPath("$[0].positions", is(1)))
+                .andExpect(jsonPath("$[0].totalValue", is(2000.0)))
+                .andExpect(jsonPath("$[0].share", is(1.0)));
+
+        mockMvc.perform(get("/api/exposure").param("groupBy", "country"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].key", is("IE")))
+                .andExpect(jsonPath("$[0].totalValue", is(2000.0)));
+
+        mockMvc.perform(get("/api/exposure").param("groupBy", "sector"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/exposure").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+}
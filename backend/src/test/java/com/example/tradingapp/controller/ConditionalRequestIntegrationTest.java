@@ -0,0 +1,127 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for conditional GETs (ETag / Last-Modified)
+ * Not transactional: depot versions are bumped after an upload commits.
+ * The spy makes this a separate context, so it gets its own database instead
+ * of recreating the schema under the shared context's instrument cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class ConditionalRequestIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private void upload(String depot, String date, String row) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** %s
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, date, row);
+        mockMvc.perform(multipart("/api/upload")
+                        .file(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that a matching If-None-Match gets 304 without querying transactions
+     */
+    @Test
+    void testTransactions_NotModifiedWithoutDatabaseQuery() throws Exception {
+        upload("ETAG001", "2024-01-01", "| 10.00 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 250.00 | 2500.00 |");
+
+        String etag = mockMvc.perform(get("/api/transactions/{clientId}", "ETAG001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        clearInvocations(transactionRepository);
+        mockMvc.perform(get("/api/transactions/{clientId}", "ETAG001").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(transactionRepository, never()).findViewsByClientId(anyString());
+    }
+
+    /**
+     * Test that an upload changes the ETag of the depot's endpoints
+     */
+    @Test
+    void testUploadInvalidatesETag() throws Exception {
+        upload("ETAG002", "2024-01-01", "| 10.00 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 250.00 | 2500.00 |");
+        String clientEtag = mockMvc.perform(get("/api/client/{id}", "ETAG002"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String transactionsEtag = mockMvc.perform(get("/api/transactions/{clientId}", "ETAG002"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertEquals(clientEtag, transactionsEtag);
+
+        upload("ETAG002", "2024-02-01", "| 20.00 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 250.00 | 5000.00 |");
+
+        mockMvc.perform(get("/api/transactions/{clientId}", "ETAG002").header("If-None-Match", transactionsEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(transactionsEtag)))
+                .andExpect(jsonPath("$[0].totalValue", is(5000.0)));
+        mockMvc.perform(get("/api/statements/{clientId}", "ETAG002").header("If-None-Match", transactionsEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    /**
+     * Test that another depot's upload does not invalidate a depot's ETag
+     */
+    @Test
+    void testETagIsPerDepot() throws Exception {
+        upload("ETAG003", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        String etag = mockMvc.perform(get("/api/client/{id}", "ETAG003"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        upload("ETAG004", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+
+        mockMvc.perform(get("/api/client/{id}", "ETAG003").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+}
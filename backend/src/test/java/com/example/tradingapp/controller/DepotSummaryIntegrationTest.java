@@ -0,0 +1,140 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the per-depot summary computed at ingestion
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class DepotSummaryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private DepotSummaryRepository depotSummaryRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        depotSummaryRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private void upload(String depot, String date, String rows, String summary) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** %s
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+
+            ### Zusammenfassung
+
+            %s
+            """.formatted(depot, date, rows, summary);
+        mockMvc.perform(multipart("/api/upload")
+                        .file(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the summary of an upload is served with the depot's validators
+     */
+    @Test
+    void testSummary_ServedAfterUpload() throws Exception {
+        upload("SUM010", "14.12.2025", """
+            | 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80,00 | 800,00 |
+            | 2 | Apple Inc. | US0378331005 | AAPL | Aktie | 200,00 | 400,00 |""", """
+            - **Anzahl Positionen:** 2
+            - **Gesamtwert:** **1.200,00 EUR**""");
+
+        String etag = mockMvc.perform(get("/api/summary/{clientId}", "SUM010"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientId", is("SUM010")))
+                .andExpect(jsonPath("$.statementDate", is("14.12.2025")))
+                .andExpect(jsonPath("$.positionCount", is(2)))
+                .andExpect(jsonPath("$.totalValue", is(1200.0)))
+                .andExpect(jsonPath("$.assetTypeValues.ETF", is(800.0)))
+                .andExpect(jsonPath("$.assetTypeValues.Stock", is(400.0)))
+                .andExpect(jsonPath("$.statedPositionCount", is(2)))
+                .andExpect(jsonPath("$.statedTotalValue", is(1200.0)))
+                .andExpect(jsonPath("$.alert", nullValue()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/summary/{clientId}", "SUM010").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/summary/{clientId}", "UNKNOWN"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that a mismatch is listed as a parse alert until a matching statement replaces it
+     */
+    @Test
+    void testMismatch_ListedUntilCorrected() throws Exception {
+        upload("SUM011", "2024-01-31", "| 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80,00 | 800,00 |", """
+            - **Anzahl Positionen:** 2
+            - **Gesamtwert:** **1.200,00 EUR**""");
+
+        mockMvc.perform(get("/api/admin/parse-alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].clientId", is("SUM011")))
+                .andExpect(jsonPath("$[0].alert", containsString("Summary lists 2 position(s), parsed 1")));
+
+        upload("SUM011", "2024-02-29", "| 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 85,00 | 850,00 |", """
+            - **Anzahl Positionen:** 1
+            - **Gesamtwert:** **850,00 EUR**""");
+
+        mockMvc.perform(get("/api/admin/parse-alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/summary/{clientId}", "SUM011"))
+                .andExpect(jsonPath("$.totalValue", is(850.0)));
+    }
+
+    /**
+     * Test that an older statement uploaded later leaves the summary of the current one
+     */
+    @Test
+    void testHistoricalStatement_KeepsCurrentSummary() throws Exception {
+        upload("SUM012", "2024-02-29", "| 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 85,00 | 850,00 |",
+                "- **Anzahl Positionen:** 1");
+        upload("SUM012", "2024-01-31", "| 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80,00 | 800,00 |",
+                "- **Anzahl Positionen:** 1");
+
+        mockMvc.perform(get("/api/summary/{clientId}", "SUM012"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statementDate", is("2024-02-29")))
+                .andExpect(jsonPath("$.totalValue", is(850.0)))
+                .andExpect(jsonPath("$.statedTotalValue", nullValue()));
+    }
+}
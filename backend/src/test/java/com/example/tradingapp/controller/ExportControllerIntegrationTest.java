@@ -0,0 +1,206 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.service.export.ColumnarPositionsReader;
+import com.example.tradingapp.service.export.ExportFormat;
+import com.example.tradingapp.service.export.PositionExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for ExportController and PositionExporter
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PositionExporter positionExporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+        upload("EX001", """
+            | 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |
+            | 2.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 400.00 |""");
+        upload("EX002", "| 5.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 12500000.00 |");
+    }
+
+    private void upload(String depot, String rows) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** 2024-02-01
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, rows);
+        mockMvc.perform(multipart("/api/upload")
+                        .file(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that the CSV export holds every position of every depot in one gzip stream
+     */
+    @Test
+    void testCsvExport() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/export/positions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("positions.csv.gz")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("clientId,id,transactionId,date,isin,asset"));
+        assertTrue(lines[1].startsWith("EX001,"));
+        assertTrue(lines[1].endsWith(",2024-02-01,IE00B4L5Y983,iShares Core MSCI World ETF,IWDA,ETF,10,100,1000"));
+        assertTrue(lines[3].startsWith("EX002,"));
+        assertTrue(lines[3].endsWith(",5,100,12500000"));
+    }
+
+    /**
+     * Test that the columnar export reads back to the same positions
+     */
+    @Test
+    void testColumnarExport() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/export/positions").param("format", "columnar"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("positions.tpos")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<ColumnarPositionsReader.Row> rows = new ArrayList<>();
+        assertEquals(3, ColumnarPositionsReader.read(new ByteArrayInputStream(body), rows::add));
+        assertEquals("EX001", rows.get(0).clientId());
+        assertEquals("US0378331005", rows.get(1).isin());
+        assertEquals("Apple Inc.", rows.get(1).asset());
+        assertEquals(400.0, rows.get(1).totalValue());
+        assertEquals("EX002", rows.get(2).clientId());
+        assertTrue(rows.get(0).id() < rows.get(1).id());
+    }
+
+    /**
+     * Test that chunks and pages smaller than the table give the same export
+     */
+    @Test
+    void testExportAcrossChunksAndPages() throws Exception {
+        PositionExporter exporter = new PositionExporter(jdbcTemplate, 2, 2);
+        byte[] full = mockMvc.perform(get("/api/export/positions").param("format", "columnar"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ByteArrayOutputStream columnar = new ByteArrayOutputStream();
+        assertEquals(3, exporter.export(ExportFormat.COLUMNAR, columnar));
+        List<ColumnarPositionsReader.Row> expected = new ArrayList<>();
+        List<ColumnarPositionsReader.Row> actual = new ArrayList<>();
+        ColumnarPositionsReader.read(new ByteArrayInputStream(full), expected::add);
+        ColumnarPositionsReader.read(new ByteArrayInputStream(columnar.toByteArray()), actual::add);
+        assertEquals(expected, actual);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(3, exporter.export(ExportFormat.CSV, csv));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(csv.toByteArray()))) {
+            assertEquals(4, new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\r\n").length);
+        }
+    }
+
+    /**
+     * Test that rows committed while the export is paging are not exported
+     */
+    @Test
+    void testExportReadsOneSnapshot() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            rows.append(String.format("| 1.00 | Asset %d | DE%010d | A%d | Aktie | 10.00 | 10.00 |%n", i, i, i));
+        }
+        upload("EX003", rows.toString());
+        long total = jdbcTemplate.queryForObject("select count(*) from transactions", Long.class);
+        long lastId = jdbcTemplate.queryForObject("select max(id) from transactions", Long.class);
+
+        // One row per chunk and per page, so chunks are written while later pages are still unread
+        Object target = AopTestUtils.getTargetObject(positionExporter);
+        ReflectionTestUtils.setField(target, "chunkRows", 1);
+        ReflectionTestUtils.setField(target, "fetchSize", 1);
+        OutputStream out = new ByteArrayOutputStream() {
+            private int writes;
+
+            @Override
+            public void write(byte[] b) throws IOException {
+                if (++writes == 2) {
+                    Thread writer = new Thread(() -> jdbcTemplate.update("insert into transactions (id, client_id, "
+                            + "transaction_id, isin, quantity, unit_price, total_value) values (?, 'EX003', "
+                            + "'LATE', 'LATE', 1, 1, 1)", lastId + 1000));
+                    writer.start();
+                    try {
+                        writer.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.write(b);
+            }
+        };
+        try {
+            assertEquals(total, positionExporter.export(ExportFormat.COLUMNAR, out));
+        } finally {
+            ReflectionTestUtils.setField(target, "chunkRows", 8192);
+            ReflectionTestUtils.setField(target, "fetchSize", 10000);
+        }
+        assertEquals(total + 1, jdbcTemplate.queryForObject("select count(*) from transactions", Long.class));
+    }
+
+    /**
+     * Test that an unknown format is rejected before anything is written
+     */
+    @Test
+    void testUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/export/positions").param("format", "xlsx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("xlsx")));
+    }
+}
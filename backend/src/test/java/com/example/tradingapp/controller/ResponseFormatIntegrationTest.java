@@ -0,0 +1,108 @@
+package com.example.tradingapp.controller;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.model.Transaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the alternative transaction list formats
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ResponseFormatIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+        save("FMT001", "Tesla Inc.", "US88160R1014", 10.0, 2500.0);
+        save("FMT001", "Apple Inc.", "US0378331005", 5.0, 900.0);
+    }
+
+    private void save(String clientId, String asset, String isin, double quantity, double totalValue) {
+        Transaction transaction = new Transaction();
+        transaction.setClientId(clientId);
+        transaction.setAsset(asset);
+        transaction.setIsin(isin);
+        transaction.setQuantity(quantity);
+        transaction.setTotalValue(totalValue);
+        transactionRepository.save(transaction);
+    }
+
+    /**
+     * Test that the default format stays row-oriented JSON
+     */
+    @Test
+    void testDefaultFormat_IsJson() throws Exception {
+        mockMvc.perform(get("/api/transactions/{clientId}", "FMT001").header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    /**
+     * Test the columnar JSON shape
+     */
+    @Test
+    void testColumnarJson() throws Exception {
+        mockMvc.perform(get("/api/transactions/{clientId}", "FMT001")
+                        .header("Accept", "application/vnd.tradingapp.columnar+json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.tradingapp.columnar+json"))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.isin", containsInAnyOrder("US88160R1014", "US0378331005")))
+                .andExpect(jsonPath("$.quantity", containsInAnyOrder(10.0, 5.0)))
+                .andExpect(jsonPath("$.asset", hasSize(2)));
+    }
+
+    /**
+     * Test that CBOR and Smile decode to the same rows as JSON
+     */
+    @Test
+    void testBinaryFormats() throws Exception {
+        assertBinary("application/cbor", new CBORMapper());
+        assertBinary("application/x-jackson-smile", new SmileMapper());
+    }
+
+    private void assertBinary(String mediaType, ObjectMapper mapper) throws Exception {
+        byte[] body = mockMvc.perform(get("/api/transactions/{clientId}", "FMT001").header("Accept", mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode rows = mapper.readTree(body);
+        assertEquals(2, rows.size());
+        assertEquals("FMT001", rows.get(0).get("clientId").asText());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.tradingapp.controller;
 
 import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
 import com.example.tradingapp.data.TransactionRepository;
 import com.example.tradingapp.model.Client;
 import com.example.tradingapp.model.Transaction;
@@ -49,6 +50,9 @@ class TradingControllerIntegrationTest {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -56,9 +60,29 @@ class TradingControllerIntegrationTest {
     void setUp() {
         // Clean database before each test
         transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
         clientRepository.deleteAll();
     }
 
+    /**
+     * Helper: Upload a markdown statement with "quantity|asset|isin|ticker|price|value" rows
+     */
+    private void uploadStatement(String depot, String date, String... rows) throws Exception {
+        StringBuilder content = new StringBuilder();
+        content.append("**Depot:** ").append(depot).append("\n");
+        content.append("**Datum:** ").append(date).append("\n\n");
+        content.append("| STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |\n");
+        content.append("|-----------------|------------|------|--------|-----|------|-----------|\n");
+        for (String row : rows) {
+            String[] cells = row.split("\\|");
+            content.append(String.format("| %s | %s | %s | %s | Aktie | %s | %s |\n",
+                    cells[0], cells[1], cells[2], cells[3], cells[4], cells[5]));
+        }
+        MockMultipartFile file = new MockMultipartFile("file", depot + ".md", "text/markdown", content.toString().getBytes());
+        mockMvc.perform(multipart("/api/upload").file(file))
+                .andExpect(status().isOk());
+    }
+
     /**
      * REQ-011: Test GET /api/transactions/{clientId}
      * REQ-014: Verify data retrieval from PostgreSQL/H2 database
@@ -157,6 +181,7 @@ class TradingControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.depot", is("UPLOAD001")))
+                .andExpect(jsonPath("$.issueCount", is(0)))
                 .andExpect(jsonPath("$.message", containsString("successfully")));
 
         // Assert - REQ-014: Verify data was persisted to database
@@ -176,6 +201,37 @@ class TradingControllerIntegrationTest {
         assertEquals("UPLOAD001", client.getDepot());
     }
 
+    /**
+     * Test that an upload with a malformed position block reports it next to the stored positions
+     */
+    @Test
+    void testUploadFile_ReportsMalformedBlocks() throws Exception {
+        String fileContent = """
+            **Depot:** UPLOAD002
+            **Datum:** 01.02.2024
+            3 Stk. iShares Core MSCI World ETF
+            ISIN: IE00B4L5Y983
+            80,50
+            01.02.2024
+            241,50
+            2 Stk. Broken Fund
+            ISIN: DE0000000001
+            n/a
+            01.02.2024
+            10,00
+            """;
+        MockMultipartFile file = new MockMultipartFile("file", "partial.txt", "text/plain", fileContent.getBytes());
+
+        mockMvc.perform(multipart("/api/upload").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.depot", is("UPLOAD002")))
+                .andExpect(jsonPath("$.issueCount", is(1)))
+                .andExpect(jsonPath("$.issues", hasSize(1)))
+                .andExpect(jsonPath("$.message", containsString("skipped 1 malformed")));
+
+        assertEquals(1, transactionRepository.findByClientId("UPLOAD002").size());
+    }
+
     /**
      * REQ-008: Test file upload with invalid format
      */
@@ -345,4 +401,72 @@ class TradingControllerIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(header().exists("Access-Control-Allow-Origin"));
     }
+
+    /**
+     * Test statement history: every upload is kept as a versioned snapshot
+     */
+    @Test
+    void testStatementHistory_KeepsEverySnapshot() throws Exception {
+        uploadStatement("HIST001", "01.01.2024", "10.00|Stock A|US1111111111|STKA|100.00|1000.00");
+        uploadStatement("HIST001", "01.02.2024",
+                "10.00|Stock A|US1111111111|STKA|110.00|1100.00",
+                "5.00|Stock B|US2222222222|STKB|200.00|1000.00");
+
+        mockMvc.perform(get("/api/statements/{clientId}", "HIST001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].statementDate", is("01.02.2024")))
+                .andExpect(jsonPath("$[0].version", is(2)))
+                .andExpect(jsonPath("$[0].latest", is(true)))
+                .andExpect(jsonPath("$[0].positionCount", is(2)))
+                .andExpect(jsonPath("$[0].totalValue", is(2100.0)))
+                .andExpect(jsonPath("$[1].statementDate", is("01.01.2024")))
+                .andExpect(jsonPath("$[1].latest", is(false)))
+                .andExpect(jsonPath("$[1].payload").doesNotExist());
+
+        // Point-in-time read of the older snapshot
+        mockMvc.perform(get("/api/statements/{clientId}/{date}", "HIST001", "01.01.2024"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].ticker", is("STKA")))
+                .andExpect(jsonPath("$[0].unitPrice", is(100.0)));
+
+        // Current holdings come from the latest snapshot only
+        mockMvc.perform(get("/api/transactions/{clientId}", "HIST001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    /**
+     * Test that uploading an older statement adds history without replacing current positions
+     */
+    @Test
+    void testStatementHistory_OlderStatementDoesNotReplaceCurrent() throws Exception {
+        uploadStatement("HIST002", "01.03.2024", "10.00|Stock C|US3333333333|STKC|300.00|3000.00");
+        uploadStatement("HIST002", "01.01.2024", "1.00|Stock D|US4444444444|STKD|50.00|50.00");
+
+        List<Transaction> current = transactionRepository.findByClientId("HIST002");
+        assertEquals(1, current.size());
+        assertEquals("STKC", current.get(0).getTicker());
+        assertTrue(statementSnapshotRepository.findByClientIdAndLatestTrue("HIST002").isPresent());
+        assertEquals("01.03.2024", statementSnapshotRepository.findByClientIdAndLatestTrue("HIST002").get().getStatementDate());
+    }
+
+    /**
+     * Test that re-uploading a statement date replaces that snapshot instead of adding one
+     */
+    @Test
+    void testStatementHistory_SameDateReplacesSnapshot() throws Exception {
+        uploadStatement("HIST003", "01.01.2024", "10.00|Stock A|US1111111111|STKA|100.00|1000.00");
+        uploadStatement("HIST003", "01.01.2024", "20.00|Stock A|US1111111111|STKA|100.00|2000.00");
+
+        mockMvc.perform(get("/api/statements/{clientId}", "HIST003"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].version", is(2)))
+                .andExpect(jsonPath("$[0].totalValue", is(2000.0)));
+
+        mockMvc.perform(get("/api/statements/{clientId}/{date}", "HIST003", "02.01.2024"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,151 @@
+package com.example.tradingapp.data;
+
+import com.example.tradingapp.data.TransactionRepositoryCustom.PositionDiff;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.FileProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for merging parsed positions into the stored rows of a depot
+ */
+@SpringBootTest
+class PositionMergeIntegrationTest {
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private void upload(String depot, String date, String rows) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** %s
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, date, rows);
+        fileProcessingService.processFile(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes()));
+    }
+
+    private Map<String, Long> idsByIsin(String depot) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("select isin, id from transactions where client_id = ?",
+                rs -> {
+                    ids.put(rs.getString(1), rs.getLong(2));
+                }, depot);
+        return ids;
+    }
+
+    /**
+     * Test that a new statement keeps the ids of held ISINs, adds new ones and deletes sold ones
+     */
+    @Test
+    void testNewStatement_KeepsIdsOfHeldIsins() throws Exception {
+        upload("MERGE001", "2024-01-31", """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 1500.00 |
+            | 5 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 200.00 | 1000.00 |
+            | 2 | SAP SE | DE0007164600 | SAP | Aktie | 120.00 | 240.00 |""");
+        Map<String, Long> before = idsByIsin("MERGE001");
+
+        upload("MERGE001", "2024-02-29", """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 160.00 | 1600.00 |
+            | 5 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 200.00 | 1000.00 |
+            | 7 | Siemens AG | DE0007236101 | SIE | Aktie | 100.00 | 700.00 |""");
+        Map<String, Long> after = idsByIsin("MERGE001");
+
+        assertEquals(3, after.size());
+        assertEquals(before.get("US0378331005"), after.get("US0378331005"));
+        assertEquals(before.get("US88160R1014"), after.get("US88160R1014"));
+        assertFalse(after.containsKey("DE0007164600"));
+        assertFalse(before.containsValue(after.get("DE0007236101")));
+        assertEquals(1600.0, jdbcTemplate.queryForObject(
+                "select total_value from transactions where client_id = 'MERGE001' and isin = 'US0378331005'", Double.class), 0.01);
+        assertTrue(transactionRepository.findViewsByClientId("MERGE001").stream()
+                .allMatch(view -> "2024-02-29".equals(view.date())));
+    }
+
+    /**
+     * Test that a new statement date alone does not rewrite the stored rows
+     */
+    @Test
+    void testNewStatementDate_RowsNotRewritten() throws Exception {
+        String rows = """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 1500.00 |
+            | 5 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 200.00 | 1000.00 |""";
+        upload("MERGE004", "2024-01-31", rows);
+        Map<String, Long> before = idsByIsin("MERGE004");
+
+        upload("MERGE004", "2024-02-29", rows);
+
+        assertEquals(before, idsByIsin("MERGE004"));
+        assertEquals(List.of("2024-01-31", "2024-01-31"), jdbcTemplate.queryForList(
+                "select date from transactions where client_id = 'MERGE004'", String.class));
+        List<TransactionView> views = transactionRepository.findViewsByClientId("MERGE004");
+        assertEquals(2, views.size());
+        assertTrue(views.stream().allMatch(view -> "2024-02-29".equals(view.date())));
+    }
+
+    /**
+     * Test that merging the stored positions again writes nothing
+     */
+    @Test
+    void testSamePositions_Unchanged() throws Exception {
+        upload("MERGE002", "2024-01-31", """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 1500.00 |
+            | 5 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 200.00 | 1000.00 |""");
+        List<Transaction> stored = transactionRepository.findByClientId("MERGE002");
+
+        PositionDiff diff = transactionRepository.mergePositions("MERGE002", stored);
+
+        assertEquals(new PositionDiff(0, 0, 0, 2), diff);
+    }
+
+    /**
+     * Test that an ISIN held twice keeps both rows and only the surplus row is deleted
+     */
+    @Test
+    void testRepeatedIsin_MatchedInIdOrder() throws Exception {
+        upload("MERGE003", "2024-01-31", """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 1500.00 |
+            | 4 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 600.00 |
+            | 1 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 150.00 |""");
+        List<Long> before = jdbcTemplate.queryForList(
+                "select id from transactions where client_id = 'MERGE003' order by id", Long.class);
+
+        upload("MERGE003", "2024-01-31", """
+            | 10 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 1500.00 |
+            | 4 | Apple Inc. | US0378331005 | AAPL | Aktie | 150.00 | 600.00 |""");
+
+        assertEquals(before.subList(0, 2), jdbcTemplate.queryForList(
+                "select id from transactions where client_id = 'MERGE003' order by id", Long.class));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tradingapp.integration;
+
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.FileProcessingService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the performance profile stacked on the production profile
+ * Verifies the pool sizing, Hikari metrics, JDBC batching settings and that
+ * sequence-generated transaction ids work against the migrated schema.
+ */
+@SpringBootTest
+@ActiveProfiles({"prod", "perf"})
+class PerformanceProfileIntegrationTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDirProperties(DynamicPropertyRegistry registry) {
+        registry.add("tradingapp.data-dir", () -> dataDir.toAbsolutePath().toString());
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void testPoolIsSizedAndReportsMetrics() {
+        HikariDataSource hikari = assertInstanceOf(HikariDataSource.class, dataSource);
+        assertEquals("tradingapp", hikari.getPoolName());
+        assertEquals(20, hikari.getMaximumPoolSize());
+        assertEquals(20, hikari.getMinimumIdle());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", "tradingapp").gauge());
+    }
+
+    @Test
+    void testBatchingIsConfigured() {
+        assertEquals("50", entityManagerFactory.getProperties().get("hibernate.jdbc.batch_size"));
+        assertEquals("true", entityManagerFactory.getProperties().get("hibernate.order_inserts"));
+        assertEquals("500", entityManagerFactory.getProperties().get("hibernate.jdbc.fetch_size"));
+    }
+
+    @Test
+    void testUploadAssignsSequenceIds() throws Exception {
+        StringBuilder content = new StringBuilder("""
+            **Depot:** PERF001
+            **Datum:** 2024-01-01
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            """);
+        for (int i = 0; i < 120; i++) {
+            content.append(String.format("| 1.00 | Asset %d | DE%010d | A%d | Aktie | 10.00 | 10.00 |%n", i, i, i));
+        }
+        fileProcessingService.processFile(new MockMultipartFile("file", "perf.md", "text/markdown", content.toString().getBytes()));
+
+        List<Transaction> saved = transactionRepository.findByClientId("PERF001");
+        assertEquals(120, saved.size());
+        assertEquals(120, saved.stream().map(Transaction::getId).filter(id -> id > 0).distinct().count());
+    }
+}
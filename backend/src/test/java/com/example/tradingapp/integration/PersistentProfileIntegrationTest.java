@@ -0,0 +1,60 @@
+package com.example.tradingapp.integration;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.model.Client;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the file-backed production profile
+ * Verifies that the Flyway migrations create a schema Hibernate accepts
+ * (ddl-auto=validate) and that data is written to the H2 file store.
+ */
+@SpringBootTest
+@ActiveProfiles("prod")
+class PersistentProfileIntegrationTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDirProperties(DynamicPropertyRegistry registry) {
+        registry.add("tradingapp.data-dir", () -> dataDir.toAbsolutePath().toString());
+    }
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMigrationsAppliedAndSchemaValidated() {
+        Integer applied = jdbcTemplate.queryForObject(
+                "select count(*) from \"flyway_schema_history\" where \"success\" = true", Integer.class);
+        assertNotNull(applied);
+        assertTrue(applied > 0);
+    }
+
+    @Test
+    void testDataIsStoredInDatabaseFile() {
+        Client client = new Client();
+        client.setId("PERSIST001");
+        client.setDepot("PERSIST001");
+        clientRepository.save(client);
+
+        assertTrue(clientRepository.findById("PERSIST001").isPresent());
+        assertTrue(Files.exists(dataDir.resolve("tradingdb.mv.db")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.data.TransactionView;
+import com.example.tradingapp.service.analytics.PositionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.event.TransactionalApplicationListener;
+import org.springframework.transaction.event.TransactionalApplicationListenerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the order of the after-commit ingestion listeners
+ */
+@SpringBootTest
+class DepotVersionRegistryIntegrationTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private DepotVersionRegistry depotVersionRegistry;
+
+    @Autowired
+    private PositionSnapshot positionSnapshot;
+
+    private void upload(String depot, String row) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** 2024-03-01
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, row);
+        fileProcessingService.processFile(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes()));
+    }
+
+    /**
+     * Test that the snapshot serves the new positions before the depot's version is bumped
+     */
+    @Test
+    void testSnapshotSwapsBeforeVersionBump() throws Exception {
+        upload("ORDER001", "| 1 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        long before = depotVersionRegistry.current("ORDER001").counter();
+
+        // Ordered between the snapshot swap and the version bump
+        List<String> seen = new ArrayList<>();
+        TransactionalApplicationListenerAdapter<PayloadApplicationEvent<StatementIngestedEvent>> probe =
+                (TransactionalApplicationListenerAdapter<PayloadApplicationEvent<StatementIngestedEvent>>)
+                        TransactionalApplicationListener.<StatementIngestedEvent>forPayload(event -> {
+                            List<TransactionView> positions = positionSnapshot.positions(event.depot());
+                            seen.add(positions.get(0).isin() + "@" + depotVersionRegistry.current(event.depot()).counter());
+                        });
+        probe.setOrder(0);
+        context.addApplicationListener(probe);
+        try {
+            upload("ORDER001", "| 2 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 250.00 | 500.00 |");
+        } finally {
+            context.removeApplicationListener(probe);
+        }
+
+        assertEquals(List.of("US88160R1014@" + before), seen);
+        assertEquals(before + 1, depotVersionRegistry.current("ORDER001").counter());
+    }
+}
@@ -1,24 +1,49 @@
 package com.example.tradingapp.service;
 
 import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
 import com.example.tradingapp.data.TransactionRepository;
 import com.example.tradingapp.model.Client;
+import com.example.tradingapp.model.DepotSummary;
 import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.diagnostics.SlowUpload;
+import com.example.tradingapp.service.diagnostics.SlowUploadLog;
+import com.example.tradingapp.service.extract.DocumentExtractors;
+import com.example.tradingapp.service.extract.DocxExtractor;
+import com.example.tradingapp.service.extract.HtmlExtractor;
+import com.example.tradingapp.service.extract.PdfExtractor;
+import com.example.tradingapp.service.extract.TextExtractor;
+import com.example.tradingapp.service.journal.IngestionJournal;
+import com.example.tradingapp.service.parser.StatementParserRegistry;
+import com.example.tradingapp.service.parser.TradeRepublicLineParser;
+import com.example.tradingapp.service.parser.TradeRepublicTableParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
@@ -40,6 +65,44 @@ public class FileProcessingServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Mock
+    private DepotSummaryRepository depotSummaryRepository;
+
+    @Mock
+    private IngestionJournal ingestionJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InstrumentCache instrumentCache;
+
+    @Spy
+    private DepotSummaries depotSummaries = new DepotSummaries();
+
+    @Spy
+    private StatementParserRegistry statementParserRegistry =
+            new StatementParserRegistry(List.of(new TradeRepublicTableParser(), new TradeRepublicLineParser()));
+
+    @Spy
+    private UploadPolicy uploadPolicy = policy(DataSize.ofMegabytes(512), DataSize.ofMegabytes(1), System.getProperty("java.io.tmpdir"));
+
+    @Spy
+    private DocumentExtractors documentExtractors = new DocumentExtractors(
+            new StaticListableBeanFactory(Map.of("pdfExtractor", new PdfExtractor())).getBeanProvider(PdfExtractor.class),
+            new StaticListableBeanFactory(Map.of("docxExtractor", new DocxExtractor())).getBeanProvider(DocxExtractor.class),
+            new StaticListableBeanFactory(Map.of("htmlExtractor", new HtmlExtractor())).getBeanProvider(HtmlExtractor.class),
+            new TextExtractor(), new String[0]);
+
+    @Spy
+    private SlowUploadLog slowUploadLog = new SlowUploadLog(Duration.ofSeconds(2), 10);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private FileProcessingService fileProcessingService;
 
@@ -50,6 +113,21 @@ public class FileProcessingServiceTest {
         random = new Random();
     }
 
+    private static UploadPolicy policy(DataSize textLimit, DataSize spillThreshold, String spillDirectory) {
+        return new UploadPolicy(DataSize.ofMegabytes(100), DataSize.ofMegabytes(50), DataSize.ofMegabytes(20),
+                textLimit, textLimit, spillThreshold, spillDirectory);
+    }
+
+    /**
+     * Helper: The positions merged as the current positions of the depot
+     */
+    @SuppressWarnings("unchecked")
+    private List<Transaction> mergedPositions(String depot) {
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).mergePositions(eq(depot), captor.capture());
+        return captor.getValue();
+    }
+
     /**
      * Helper: Generate random depot ID
      */
@@ -114,11 +192,9 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(depot)).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(depot)).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals(depot, resultDepot);
@@ -131,9 +207,7 @@ public class FileProcessingServiceTest {
         assertEquals(depot, savedClient.getDepot());
         
         // Verify transaction was saved
-        ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, atLeastOnce()).save(transactionCaptor.capture());
-        Transaction savedTransaction = transactionCaptor.getValue();
+        Transaction savedTransaction = mergedPositions(depot).get(0);
         assertEquals(depot, savedTransaction.getClientId());
         assertEquals("Apple Inc.", savedTransaction.getAsset());
         assertEquals("US0378331005", savedTransaction.getIsin());
@@ -179,16 +253,14 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(depot)).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(depot)).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals(depot, resultDepot);
         verify(clientRepository).save(any(Client.class));
-        verify(transactionRepository, times(numTransactions)).save(any(Transaction.class));
+        assertEquals(numTransactions, mergedPositions(depot).size());
     }
 
     /**
@@ -216,17 +288,14 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById("TEST123")).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId("TEST123")).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals("TEST123", resultDepot);
         verify(clientRepository).save(any(Client.class));
-        verify(transactionRepository).findByClientId("TEST123");
-        verify(transactionRepository, atLeastOnce()).save(any(Transaction.class));
+        assertFalse(mergedPositions("TEST123").isEmpty());
     }
 
     /**
@@ -244,10 +313,9 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(anyString())).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(anyString())).thenReturn(new ArrayList<>());
 
         // Act
-        String depot = fileProcessingService.processFile(file);
+        String depot = fileProcessingService.processFile(file).getDepot();
 
         // Assert: Should save a client with empty depot ID
         assertNotNull(depot);
@@ -279,16 +347,15 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById("DEPOT999")).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId("DEPOT999")).thenReturn(new ArrayList<>());
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert: Should process without throwing exception, but skip malformed row
         assertEquals("DEPOT999", resultDepot);
         verify(clientRepository).save(any(Client.class));
         // No transaction should be saved for malformed row
-        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertTrue(mergedPositions("DEPOT999").isEmpty());
     }
 
     /**
@@ -322,17 +389,15 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(depot)).thenReturn(Optional.of(existingClient));
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(depot)).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals(depot, resultDepot);
         verify(clientRepository).findById(depot);
         verify(clientRepository).save(any(Client.class));
-        verify(transactionRepository).save(any(Transaction.class));
+        assertEquals(1, mergedPositions(depot).size());
     }
 
     /**
@@ -361,21 +426,85 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(depot)).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(depot)).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals(depot, resultDepot);
         
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository).save(captor.capture());
-        Transaction savedTransaction = captor.getValue();
+        Transaction savedTransaction = mergedPositions(depot).get(0);
         assertEquals("McDonald's Corp. & Co.", savedTransaction.getAsset());
     }
 
+    /**
+     * Test that the summary of the latest statement is stored and agrees with the statement's own figures
+     */
+    @Test
+    void testProcessFile_StoresSummaryMatchingStatement() throws IOException {
+        String depot = "SUM001";
+        String content = """
+            **Depot:** %s
+            **Datum:** 14.12.2025
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            | 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80,00 | 800,00 |
+            | 0,1307 | Apple Inc. | US0378331005 | AAPL | Aktie | 236,35 | 30,89 |
+
+            ### Zusammenfassung
+
+            - **Anzahl Positionen:** 2
+            - **Gesamtwert:** **830,89 EUR**
+            """.formatted(depot);
+        when(clientRepository.findById(depot)).thenReturn(Optional.empty());
+        when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
+
+        fileProcessingService.processFile(new MockMultipartFile("file", "summary.md", "text/markdown", content.getBytes()));
+
+        ArgumentCaptor<DepotSummary> captor = ArgumentCaptor.forClass(DepotSummary.class);
+        verify(depotSummaryRepository).save(captor.capture());
+        DepotSummary summary = captor.getValue();
+        assertEquals(depot, summary.getClientId());
+        assertEquals(2, summary.getPositionCount());
+        assertEquals(830.89, summary.getTotalValue(), 0.001);
+        assertEquals(Map.of("ETF", 800.0, "Stock", 30.89), summary.getAssetTypeValues());
+        assertEquals(2, summary.getStatedPositionCount());
+        assertEquals(830.89, summary.getStatedTotalValue(), 0.001);
+        assertNull(summary.getAlert());
+    }
+
+    /**
+     * Test that a statement whose positions do not add up to its summary is flagged
+     */
+    @Test
+    void testProcessFile_FlagsSummaryMismatch() throws IOException {
+        String depot = "SUM002";
+        String content = """
+            **Depot:** %s
+            **Datum:** 14.12.2025
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            | 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80,00 | 800,00 |
+            | 5 | Apple Inc. | US0378331005 | AAPL | Aktie | abc | 1.000,00 |
+
+            - **Anzahl Positionen:** 2
+            - **Gesamtwert:** **1.800,00 EUR**
+            """.formatted(depot);
+        when(clientRepository.findById(depot)).thenReturn(Optional.empty());
+        when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
+
+        fileProcessingService.processFile(new MockMultipartFile("file", "mismatch.md", "text/markdown", content.getBytes()));
+
+        ArgumentCaptor<DepotSummary> captor = ArgumentCaptor.forClass(DepotSummary.class);
+        verify(depotSummaryRepository).save(captor.capture());
+        DepotSummary summary = captor.getValue();
+        assertEquals(1, summary.getPositionCount());
+        assertEquals("Summary lists 2 position(s), parsed 1; Summary total 1800.00 differs from the parsed total 800.00",
+                summary.getAlert());
+    }
+
     /**
      * REQ-013: Test handling large numbers
      */
@@ -410,20 +539,114 @@ public class FileProcessingServiceTest {
 
         when(clientRepository.findById(depot)).thenReturn(Optional.empty());
         when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
-        when(transactionRepository.findByClientId(depot)).thenReturn(new ArrayList<>());
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        String resultDepot = fileProcessingService.processFile(file);
+        String resultDepot = fileProcessingService.processFile(file).getDepot();
 
         // Assert
         assertEquals(depot, resultDepot);
         
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository).save(captor.capture());
-        Transaction savedTransaction = captor.getValue();
+        Transaction savedTransaction = mergedPositions(depot).get(0);
         assertEquals(largeQty, savedTransaction.getQuantity(), 0.01);
         assertEquals(largePrice, savedTransaction.getUnitPrice(), 0.01);
         assertEquals(largeTotal, savedTransaction.getTotalValue(), 0.01);
     }
+
+    /**
+     * Test that an upload above the spill threshold is parsed from its temp file,
+     * which is removed afterwards
+     */
+    @Test
+    void testProcessFile_SpilledUploadIsReadFromDiskAndDeleted(@TempDir Path spillDirectory) throws IOException {
+        ReflectionTestUtils.setField(fileProcessingService, "uploadPolicy",
+                policy(DataSize.ofMegabytes(512), DataSize.ofBytes(0), spillDirectory.toString()));
+        String content = """
+            **Depot:** SPILL01
+            **Datum:** 01.12.2024
+
+            | STK. / Nominale | Wertpapierbezeichnung | Ticker | Kurs pro Stück (EUR) | Kursdatum | Kurswert (EUR) |
+            |-----------------|-----------------------|--------|----------------------|-----------|----------------|
+            | 10,00 | Tesla Inc.<br>ISIN: US88160R1014 | TSLA | 250,50 | 01.12.2024 | 2.505,00 |
+            """;
+        MockMultipartFile file = new MockMultipartFile("file", "spill.md", "text/markdown", content.getBytes());
+
+        when(clientRepository.findById("SPILL01")).thenReturn(Optional.empty());
+        when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
+
+        assertEquals("SPILL01", fileProcessingService.processFile(file).getDepot());
+
+        Transaction saved = mergedPositions("SPILL01").get(0);
+        assertEquals("US88160R1014", saved.getIsin());
+        assertEquals(2505.0, saved.getTotalValue(), 0.01);
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Test that an upload above the limit of its file type is rejected before parsing
+     */
+    @Test
+    void testProcessFile_RejectsUploadAboveTypeLimit() {
+        ReflectionTestUtils.setField(fileProcessingService, "uploadPolicy",
+                policy(DataSize.ofBytes(16), DataSize.ofMegabytes(1), System.getProperty("java.io.tmpdir")));
+        MockMultipartFile file = new MockMultipartFile("file", "big.txt", "text/plain",
+                "**Depot:** BIG\n**Datum:** 01.12.2024\n".getBytes());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> fileProcessingService.processFile(file));
+        assertTrue(e.getMessage().contains(".txt"));
+        verifyNoInteractions(statementParserRegistry, clientRepository, transactionRepository);
+    }
+
+    /**
+     * Test that an upload above the slow-upload threshold is recorded with its stage timings
+     */
+    @Test
+    void testProcessFile_RecordsSlowUploadWithStageTimings() throws IOException {
+        SlowUploadLog log = new SlowUploadLog(Duration.ZERO, 10);
+        ReflectionTestUtils.setField(fileProcessingService, "slowUploadLog", log);
+        String content = """
+            **Depot:** SLOW01
+            **Datum:** 01.12.2024
+
+            | STK. / Nominale | Wertpapierbezeichnung | Ticker | Kurs pro Stück (EUR) | Kursdatum | Kurswert (EUR) |
+            |-----------------|-----------------------|--------|----------------------|-----------|----------------|
+            | 10,00 | Tesla Inc.<br>ISIN: US88160R1014 | TSLA | 250,50 | 01.12.2024 | 2.505,00 |
+            """;
+        MockMultipartFile file = new MockMultipartFile("file", "slow.md", "text/markdown", content.getBytes());
+
+        when(clientRepository.findById("SLOW01")).thenReturn(Optional.empty());
+        when(clientRepository.save(any(Client.class))).thenAnswer(i -> i.getArgument(0));
+
+        fileProcessingService.processFile(file);
+
+        SlowUpload upload = log.recent().get(0);
+        assertEquals("md", upload.fileType());
+        assertEquals(content.getBytes().length, upload.sizeBytes());
+        assertEquals("SLOW01", upload.depot());
+        assertEquals(1, upload.rows());
+        assertEquals(List.of("check", "spill", "extract", "parse", "summary", "intern", "journal", "client", "snapshot",
+                "merge", "flush", "commit"), List.copyOf(upload.stageNanos().keySet()));
+        assertEquals(upload.totalNanos(), upload.stageNanos().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals("committed", upload.outcome());
+    }
+
+    /**
+     * Test that a rejected upload is still recorded, with the stages it reached
+     */
+    @Test
+    void testProcessFile_RecordsFailedUpload() {
+        SlowUploadLog log = new SlowUploadLog(Duration.ZERO, 10);
+        ReflectionTestUtils.setField(fileProcessingService, "slowUploadLog", log);
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain", "x".repeat(64).getBytes());
+        ReflectionTestUtils.setField(fileProcessingService, "uploadPolicy",
+                policy(DataSize.ofBytes(16), DataSize.ofMegabytes(1), System.getProperty("java.io.tmpdir")));
+
+        assertThrows(IllegalArgumentException.class, () -> fileProcessingService.processFile(file));
+
+        SlowUpload upload = log.recent().get(0);
+        assertEquals("notes.txt", upload.filename());
+        assertEquals("failed", upload.outcome());
+        assertTrue(upload.stageNanos().isEmpty());
+    }
 }
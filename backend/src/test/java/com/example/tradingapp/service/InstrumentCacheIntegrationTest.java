@@ -0,0 +1,179 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for instruments shared between transactions
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class InstrumentCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InstrumentCache instrumentCache;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private void upload(String depot, String row) throws Exception {
+        String content = """
+            **Depot:** %s
+            **Datum:** 2024-03-01
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, row);
+        mockMvc.perform(multipart("/api/upload")
+                        .file(new MockMultipartFile("file", depot + ".md", "text/markdown", content.getBytes())))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test that depots holding the same ISIN reference one instrument row
+     */
+    @Test
+    void testSameIsin_SharesInstrument() throws Exception {
+        upload("INST001", "| 10 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80.00 | 800.00 |");
+        upload("INST002", "| 5 | iShares Core MSCI World ETF | IE00B4L5Y983 | EUNL | ETF | 80.00 | 400.00 |");
+
+        Transaction first = transactionRepository.findByClientId("INST001").get(0);
+        Transaction second = transactionRepository.findByClientId("INST002").get(0);
+        assertEquals(first.getInstrument().getId(), second.getInstrument().getId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from instruments where isin = 'IE00B4L5Y983'", Integer.class));
+        assertEquals("iShares Core MSCI World ETF", second.getAsset());
+    }
+
+    /**
+     * Test that a later upload with a new name renames the instrument for every depot
+     */
+    @Test
+    void testRenamedInstrument_LatestUploadWins() throws Exception {
+        upload("INST003", "| 1 | Old Name AG | DE000REN0001 | REN | Aktie | 10.00 | 10.00 |");
+        upload("INST004", "| 2 | New Name AG | DE000REN0001 | REN | Aktie | 10.00 | 20.00 |");
+
+        mockMvc.perform(get("/api/transactions/{clientId}", "INST003"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].asset", is("New Name AG")))
+                .andExpect(jsonPath("$[0].ticker", is("REN")));
+    }
+
+    /**
+     * Test that parsed positions of a known instrument share the cached strings
+     */
+    @Test
+    void testIntern_SharesStrings() throws Exception {
+        upload("INST005", "| 3 | Vanguard FTSE All-World ETF | IE00BK5BQT80 | VWCE | ETF | 100.00 | 300.00 |");
+        Transaction parsed = new Transaction();
+        parsed.setIsin("IE00BK5BQT80");
+        parsed.setAsset(new String("Vanguard FTSE All-World ETF"));
+        parsed.setTicker("VWCE");
+        parsed.setAssetType("ETF");
+        Transaction other = new Transaction();
+        other.setIsin("IE00BK5BQT80");
+        other.setAsset(new String("Vanguard FTSE All-World ETF"));
+        other.setTicker("VWCE");
+        other.setAssetType("ETF");
+
+        instrumentCache.intern(parsed);
+        instrumentCache.intern(other);
+
+        assertNotNull(parsed.getInstrument());
+        assertSame(parsed.getAsset(), other.getAsset());
+    }
+
+    /**
+     * Test that positions without ISIN get one instrument per asset name
+     */
+    @Test
+    void testNoIsin_KeyedByName() throws Exception {
+        upload("INST006", "| 1 | Private Placement A |  | | Sonstige | 1.00 | 1.00 |");
+        upload("INST007", "| 1 | Private Placement B |  | | Sonstige | 1.00 | 1.00 |");
+
+        List<Transaction> a = transactionRepository.findByClientId("INST006");
+        List<Transaction> b = transactionRepository.findByClientId("INST007");
+        assertNotEquals(a.get(0).getInstrument().getId(), b.get(0).getInstrument().getId());
+        assertEquals("Private Placement B", b.get(0).getAsset());
+        assertEquals("", b.get(0).getIsin());
+    }
+
+    /**
+     * Test that an instrument renamed by an upload that rolls back keeps its committed name
+     */
+    @Test
+    void testRolledBackRename_LeavesInstrument() {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> instrumentCache.resolve(position("Committed AG")));
+        requiresNew.executeWithoutResult(status -> {
+            Transaction renamed = position("Renamed AG");
+            instrumentCache.resolve(renamed);
+            assertEquals("Renamed AG", jdbcTemplate.queryForObject(
+                    "select asset from instruments where isin = 'DE000RBK0001'", String.class));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Committed AG", jdbcTemplate.queryForObject(
+                "select asset from instruments where isin = 'DE000RBK0001'", String.class));
+        Transaction parsed = position("Committed AG");
+        instrumentCache.intern(parsed);
+        assertNotNull(parsed.getInstrument());
+    }
+
+    private static Transaction position(String asset) {
+        Transaction position = new Transaction();
+        position.setIsin("DE000RBK0001");
+        position.setAsset(asset);
+        position.setTicker("RBK");
+        position.setAssetType("Stock");
+        return position;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IsinAggregator
+ * Compares sequential and fork-join aggregation with a plain HashMap grouping
+ */
+class IsinAggregatorTest {
+
+    private static List<Transaction> positions(int rows, int instruments) {
+        Random random = new Random(7);
+        List<Transaction> positions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int instrument = random.nextInt(instruments);
+            Transaction position = new Transaction();
+            // New strings, so keys must also match by equals, and some positions without ISIN
+            position.setIsin(instrument == 0 ? null : new String("DE" + instrument));
+            position.setQuantity(random.nextInt(10) + 1);
+            position.setTotalValue(random.nextInt(1000));
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    private static void assertMatchesGrouping(List<Transaction> positions, IsinAggregator aggregator) {
+        Map<String, double[]> expected = new HashMap<>();
+        for (Transaction position : positions) {
+            double[] totals = expected.computeIfAbsent(position.getIsin() == null ? "" : position.getIsin(), k -> new double[3]);
+            totals[0]++;
+            totals[1] += position.getQuantity();
+            totals[2] += position.getTotalValue();
+        }
+        assertEquals(expected.size(), aggregator.size());
+        for (int slot = 0; slot < aggregator.size(); slot++) {
+            double[] totals = expected.get(aggregator.isin(slot));
+            assertNotNull(totals, aggregator.isin(slot));
+            assertEquals(totals[0], aggregator.positions(slot));
+            assertEquals(totals[1], aggregator.quantity(slot), 1e-6);
+            assertEquals(totals[2], aggregator.totalValue(slot), 1e-6);
+            Transaction first = positions.get(aggregator.firstRow(slot));
+            assertEquals(aggregator.isin(slot), first.getIsin() == null ? "" : first.getIsin());
+        }
+    }
+
+    @Test
+    void testSequentialAggregationMatchesGrouping() {
+        List<Transaction> positions = positions(5_000, 800);
+        assertMatchesGrouping(positions, IsinAggregator.sequential(IsinAggregator.Rows.of(positions)));
+    }
+
+    /**
+     * Test that fork-join partitions merge into the same totals
+     */
+    @Test
+    void testParallelAggregationMatchesGrouping() {
+        List<Transaction> positions = positions(300_000, 20_000);
+        assertMatchesGrouping(positions, IsinAggregator.parallel(IsinAggregator.Rows.of(positions)));
+    }
+
+    @Test
+    void testSlotsByValue() {
+        List<Transaction> positions = positions(2_000, 50);
+        IsinAggregator aggregator = IsinAggregator.sequential(IsinAggregator.Rows.of(positions));
+        int[] slots = aggregator.slotsByValue();
+        assertEquals(aggregator.size(), slots.length);
+        for (int i = 1; i < slots.length; i++) {
+            assertTrue(aggregator.totalValue(slots[i - 1]) >= aggregator.totalValue(slots[i]));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.analytics.PositionColumnStore.IsinAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PositionColumnStore
+ * Tests depot replacement, cross-depot aggregates and tombstone compaction
+ */
+class PositionColumnStoreTest {
+
+    private PositionColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PositionColumnStore();
+    }
+
+    private Transaction position(String depot, String isin, String assetType, double quantity, double totalValue) {
+        Transaction t = new Transaction();
+        t.setClientId(depot);
+        t.setAsset("Asset " + isin);
+        t.setIsin(isin);
+        t.setTicker("T" + isin.substring(isin.length() - 2));
+        t.setAssetType(assetType);
+        t.setQuantity(quantity);
+        t.setUnitPrice(totalValue / quantity);
+        t.setTotalValue(totalValue);
+        return t;
+    }
+
+    @Test
+    void testAggregatesAcrossDepots() {
+        store.replaceDepot("D1", List.of(
+                position("D1", "IE00B4L5Y983", "ETF", 10, 1000),
+                position("D1", "US0378331005", "Stock", 2, 400)));
+        store.replaceDepot("D2", List.of(
+                position("D2", "IE00B4L5Y983", "ETF", 5, 500)));
+
+        Map<String, Double> allocation = store.totalValueByAssetType();
+        assertEquals(1500.0, allocation.get("ETF"), 0.001);
+        assertEquals(400.0, allocation.get("Stock"), 0.001);
+
+        List<IsinAggregate> top = store.topHoldings(10);
+        assertEquals(2, top.size());
+        IsinAggregate first = top.get(0);
+        assertEquals("IE00B4L5Y983", first.isin());
+        assertEquals("Asset IE00B4L5Y983", first.asset());
+        assertEquals(2, first.positions());
+        assertEquals(15.0, first.quantity(), 0.001);
+        assertEquals(1500.0, first.totalValue(), 0.001);
+        assertEquals(1500.0 / 1900.0, first.share(), 0.0001);
+    }
+
+    @Test
+    void testReplaceDepotDropsOldPositions() {
+        store.replaceDepot("D1", List.of(position("D1", "US0378331005", "Stock", 2, 400)));
+        store.replaceDepot("D1", List.of(position("D1", "US5949181045", "Stock", 1, 300)));
+
+        List<IsinAggregate> top = store.topHoldings(10);
+        assertEquals(1, top.size());
+        assertEquals("US5949181045", top.get(0).isin());
+        assertEquals(1, store.positionCount());
+        assertEquals(300.0, store.totalValueByAssetType().get("Stock"), 0.001);
+    }
+
+    @Test
+    void testCompactionKeepsLivePositions() {
+        for (int round = 0; round < 50; round++) {
+            for (int depot = 0; depot < 20; depot++) {
+                List<Transaction> positions = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                    positions.add(position("D" + depot, "ISIN0000000" + i, "ETF", 1, 100 + round));
+                }
+                store.replaceDepot("D" + depot, positions);
+            }
+        }
+
+        assertEquals(100, store.positionCount());
+        assertEquals(100 * 149.0, store.totalValueByAssetType().get("ETF"), 0.001);
+        assertEquals(20, store.topHoldings(3).get(0).positions());
+    }
+
+    @Test
+    void testCompactionAfterReplacingLowerCodeDepot() {
+        store.replaceDepot("A", List.of(position("A", "IA0000000001", "Stock", 1, 1)));
+        store.replaceDepot("B", List.of(
+                position("B", "IB0000000001", "Stock", 1, 100),
+                position("B", "IB0000000002", "Stock", 1, 200)));
+        for (int round = 0; round < 3; round++) {
+            store.replaceDepot("A", List.of(
+                    position("A", "IA0000000001", "Stock", 1, 1),
+                    position("A", "IA0000000002", "Stock", 1, 2)));
+        }
+
+        Map<String, IsinAggregate> holdings = new HashMap<>();
+        for (IsinAggregate aggregate : store.topHoldings(10)) {
+            holdings.put(aggregate.isin(), aggregate);
+        }
+        assertEquals(4, store.positionCount());
+        assertEquals(4, holdings.size());
+        assertEquals(100.0, holdings.get("IB0000000001").totalValue(), 0.001);
+        assertEquals(200.0, holdings.get("IB0000000002").totalValue(), 0.001);
+        assertEquals(1, holdings.get("IA0000000002").positions());
+        assertEquals(2.0, holdings.get("IA0000000002").totalValue(), 0.001);
+
+        // The compacted rows must still be tombstoned correctly on the next replacement
+        store.replaceDepot("B", List.of(position("B", "IB0000000001", "Stock", 1, 150)));
+        assertEquals(3, store.positionCount());
+        assertEquals(153.0, store.totalValueByAssetType().get("Stock"), 0.001);
+    }
+
+    @Test
+    void testLimitOnTopHoldings() {
+        List<Transaction> positions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            positions.add(position("D1", String.format("ISIN%08d", i), "Stock", 1, i + 1));
+        }
+        store.replaceDepot("D1", positions);
+
+        List<IsinAggregate> top = store.topHoldings(3);
+        assertEquals(3, top.size());
+        assertEquals(20.0, top.get(0).totalValue(), 0.001);
+        assertEquals(18.0, top.get(2).totalValue(), 0.001);
+    }
+
+    @Test
+    void testExposureTotalsFollowReplacements() {
+        store.replaceDepot("D1", List.of(
+                position("D1", "IE00B4L5Y983", "ETF", 10, 1000),
+                position("D1", "US0378331005", "Stock", 2, 400)));
+        store.replaceDepot("D2", List.of(position("D2", "IE00B4L5Y983", "ETF", 5, 500)));
+        store.replaceDepot("D1", List.of(position("D1", "US0378331005", "Stock", 4, 800)));
+
+        List<PositionColumnStore.Exposure> byIsin = store.exposureByIsin();
+        assertEquals(2, byIsin.size());
+        assertEquals("US0378331005", byIsin.get(0).key());
+        assertEquals(800.0, byIsin.get(0).totalValue(), 0.001);
+        assertEquals(1, byIsin.get(1).positions());
+        assertEquals(500.0, byIsin.get(1).totalValue(), 0.001);
+
+        List<PositionColumnStore.Exposure> byType = store.exposureByAssetType();
+        assertEquals("Stock", byType.get(0).key());
+        assertEquals(800.0 / 1300.0, byType.get(0).share(), 0.0001);
+    }
+
+    @Test
+    void testExposureByCountryScansLiveRows() {
+        store.replaceDepot("D1", List.of(
+                position("D1", "IE00B4L5Y983", "ETF", 10, 1000),
+                position("D1", "US0378331005", "Stock", 2, 400),
+                position("D1", "US5949181045", "Stock", 1, 300)));
+        store.replaceDepot("D2", List.of(position("D2", "IE00B4L5Y983", "ETF", 5, 500)));
+        // The tombstoned rows of D1 must not count
+        store.replaceDepot("D1", List.of(position("D1", "US0378331005", "Stock", 4, 800)));
+
+        List<PositionColumnStore.Exposure> byCountry = store.exposureByCountry();
+        assertEquals(2, byCountry.size());
+        assertEquals("US", byCountry.get(0).key());
+        assertEquals(1, byCountry.get(0).positions());
+        assertEquals(800.0, byCountry.get(0).totalValue(), 0.001);
+        assertEquals("IE", byCountry.get(1).key());
+        assertEquals(500.0 / 1300.0, byCountry.get(1).share(), 0.0001);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.tradingapp.service.analytics;
+
+import com.example.tradingapp.config.ColumnarJsonHttpMessageConverter;
+import com.example.tradingapp.data.TransactionView;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.analytics.PositionColumnStore.IsinAggregate;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PositionSnapshot
+ * Tests depot replacement, compaction and that the buffer-backed serialization
+ * matches the serialization of the equivalent TransactionView list
+ */
+class PositionSnapshotTest {
+
+    private final PositionSnapshot snapshot = new PositionSnapshot();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Transaction position(String depot, long id, String isin, double quantity, double unitPrice) {
+        Transaction t = new Transaction();
+        t.setId(id);
+        t.setClientId(depot);
+        t.setTransactionId(isin);
+        t.setDate("01.12.2024");
+        t.setAsset("Asset " + isin);
+        t.setIsin(isin);
+        t.setTicker(isin == null || isin.isEmpty() ? null : "T" + isin.substring(isin.length() - 2));
+        t.setAssetType("Aktie");
+        t.setQuantity(quantity);
+        t.setUnitPrice(unitPrice);
+        t.setTotalValue(quantity * unitPrice);
+        return t;
+    }
+
+    private static List<TransactionView> views(List<Transaction> positions) {
+        return positions.stream().map(t -> new TransactionView(t.getId(), t.getClientId(), t.getTransactionId(), t.getDate(),
+                t.getAsset(), t.getIsin(), t.getTicker(), t.getAssetType(), t.getQuantity(), t.getUnitPrice(), t.getTotalValue())).toList();
+    }
+
+    @Test
+    void testReplaceDepotServesNewPositionsAndKeepsOpenViews() {
+        snapshot.replaceDepot("D1", List.of(position("D1", 1, "US88160R1014", 10, 250.5)));
+        DepotPositions before = snapshot.positions("D1");
+
+        List<Transaction> replacement = List.of(position("D1", 2, "US0378331005", 3, 180), position("D1", 3, null, 1, 99));
+        snapshot.replaceDepot("D1", replacement);
+
+        assertEquals(views(replacement), snapshot.positions("D1"));
+        assertEquals(1, before.size());
+        assertEquals(2505.0, before.get(0).totalValue(), 0.001);
+        assertNull(snapshot.positions("UNKNOWN"));
+        assertEquals(2, snapshot.positionCount());
+    }
+
+    /**
+     * Test that positions without an ISIN keep their own instrument in every depot
+     */
+    @Test
+    void testPositionsWithoutIsinKeepTheirInstrument() {
+        List<Transaction> depotA = List.of(position("A", 1, "", 1, 100), position("A", 2, "", 2, 50));
+        depotA.get(0).setAsset("Alpha Fund");
+        depotA.get(1).setAsset("Beta Bond");
+        depotA.get(1).setTicker("BETA");
+        List<Transaction> depotB = List.of(position("B", 3, "", 3, 10));
+        depotB.get(0).setAsset("Gamma Trust");
+        depotB.get(0).setAssetType("Fonds");
+        snapshot.replaceDepot("A", depotA);
+        snapshot.replaceDepot("B", depotB);
+
+        assertEquals(views(depotA), snapshot.positions("A"));
+        assertEquals(views(depotB), snapshot.positions("B"));
+    }
+
+    /**
+     * Test that depots survive the copy into a larger buffer when the buffer fills up
+     */
+    @Test
+    void testCompactionKeepsLiveDepots() {
+        List<Transaction> large = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            large.add(position("BIG", i, String.format("DE%010d", i), i + 1, 10));
+        }
+        snapshot.replaceDepot("BIG", large);
+        for (int round = 0; round < 5; round++) {
+            snapshot.replaceDepot("SMALL", List.of(position("SMALL", 10_000 + round, "US88160R1014", round + 1, 250)));
+            snapshot.replaceDepot("BIG", large);
+        }
+
+        assertEquals(views(large), snapshot.positions("BIG"));
+        assertEquals(5.0, snapshot.positions("SMALL").get(0).quantity(), 0.001);
+        assertEquals(701, snapshot.positionCount());
+    }
+
+    /**
+     * Test that JSON and columnar JSON written from the buffer equal the output for TransactionView rows
+     */
+    @Test
+    void testSerializationMatchesTransactionViews() throws IOException {
+        List<Transaction> positions = List.of(position("D1", 1, "US88160R1014", 10, 250.5), position("D1", 2, null, 1, 99));
+        snapshot.replaceDepot("D1", positions);
+
+        assertEquals(objectMapper.writeValueAsString(views(positions)), objectMapper.writeValueAsString(snapshot.positions("D1")));
+        assertEquals(columns(views(positions)), columns(snapshot.positions("D1")));
+    }
+
+    private String columns(List<TransactionView> transactions) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            ColumnarJsonHttpMessageConverter.writeColumns(transactions, generator);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Test that holdings of a depot group add up positions of the same ISIN
+     */
+    @Test
+    void testHoldingsAcrossDepots() {
+        snapshot.replaceDepot("D1", List.of(position("D1", 1, "US88160R1014", 10, 250), position("D1", 2, "US0378331005", 1, 180)));
+        snapshot.replaceDepot("D2", List.of(position("D2", 3, "US88160R1014", 5, 250)));
+        snapshot.replaceDepot("D3", List.of(position("D3", 4, "US88160R1014", 100, 250)));
+
+        List<IsinAggregate> holdings = snapshot.holdings(List.of("D1", "D2", "UNKNOWN"), 10);
+
+        assertEquals(2, holdings.size());
+        assertEquals("US88160R1014", holdings.get(0).isin());
+        assertEquals("Asset US88160R1014", holdings.get(0).asset());
+        assertEquals(2, holdings.get(0).positions());
+        assertEquals(15.0, holdings.get(0).quantity(), 0.001);
+        assertEquals(3750.0, holdings.get(0).totalValue(), 0.001);
+        assertEquals(3750.0 / 3930.0, holdings.get(0).share(), 0.0001);
+        assertEquals(1, snapshot.holdings(List.of("D1", "D2"), 1).size());
+    }
+}
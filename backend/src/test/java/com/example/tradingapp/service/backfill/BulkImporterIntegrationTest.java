@@ -0,0 +1,156 @@
+package com.example.tradingapp.service.backfill;
+
+import com.example.tradingapp.data.ClientRepository;
+import com.example.tradingapp.data.DepotSummaryRepository;
+import com.example.tradingapp.data.StatementSnapshotRepository;
+import com.example.tradingapp.data.TransactionRepository;
+import com.example.tradingapp.model.DepotSummary;
+import com.example.tradingapp.model.StatementSnapshot;
+import com.example.tradingapp.model.Transaction;
+import com.example.tradingapp.service.FileProcessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BulkImporter and StatementBatchWriter
+ */
+@SpringBootTest
+class BulkImporterIntegrationTest {
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementSnapshotRepository statementSnapshotRepository;
+
+    @Autowired
+    private DepotSummaryRepository depotSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        statementSnapshotRepository.deleteAll();
+        clientRepository.deleteAll();
+        ReflectionTestUtils.setField(bulkImporter, "batchFiles", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(bulkImporter, "batchFiles", 200);
+    }
+
+    private Path statement(String name, String depot, String date, String rows) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, """
+            **Depot:** %s
+            **Datum:** %s
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            %s
+            """.formatted(depot, date, rows));
+    }
+
+    /**
+     * Test that a directory is imported in batches, with the newest statement of each depot as its positions
+     */
+    @Test
+    void testImportDirectory() throws IOException {
+        statement("2024/a.md", "BF001", "2024-02-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        statement("2024/b.md", "BF001", "2024-01-01", """
+            | 10.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 1000.00 |
+            | 2.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 400.00 |""");
+        statement("c.md", "BF002", "2024-01-01", "| 5.00 | iShares Core MSCI World ETF | IE00B4L5Y983 | IWDA | ETF | 100.00 | 500.00 |");
+        Files.writeString(dir.resolve("broken.pdf"), "not a pdf");
+
+        BulkImporter.Result result = bulkImporter.importDirectory(dir);
+
+        assertEquals(4, result.files());
+        assertEquals(3, result.imported());
+        assertEquals(1, result.failed());
+        List<Transaction> bf001 = transactionRepository.findByClientId("BF001");
+        assertEquals(1, bf001.size());
+        assertEquals(200.0, bf001.get(0).getTotalValue());
+        assertEquals("Apple Inc.", jdbcTemplate.queryForObject("select i.asset from transactions t "
+                + "join instruments i on i.id = t.instrument_id where t.client_id = 'BF001'", String.class));
+        assertEquals(1, transactionRepository.findByClientId("BF002").size());
+        assertTrue(clientRepository.findById("BF002").isPresent());
+
+        StatementSnapshot latest = statementSnapshotRepository.findByClientIdAndLatestTrue("BF001").orElseThrow();
+        assertEquals("2024-02-01", latest.getStatementDate());
+        assertEquals(1, latest.getVersion());
+        assertEquals(2, statementSnapshotRepository.findByClientIdAndStatementDate("BF001", "2024-01-01").orElseThrow().getVersion());
+
+        DepotSummary summary = depotSummaryRepository.findById("BF001").orElseThrow();
+        assertEquals("2024-02-01", summary.getStatementDate());
+        assertEquals(1, summary.getPositionCount());
+        assertEquals(Map.of("Stock", 200.0), summary.getAssetTypeValues());
+        assertEquals(500.0, depotSummaryRepository.findById("BF002").orElseThrow().getTotalValue());
+    }
+
+    /**
+     * Test that a second run skips checkpointed files and imports new or changed ones
+     */
+    @Test
+    void testResumeFromCheckpoint() throws IOException {
+        statement("a.md", "BF003", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        statement("b.md", "BF004", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        assertEquals(2, bulkImporter.importDirectory(dir).imported());
+
+        statement("b.md", "BF004", "2024-03-01", "| 3.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 600.00 |");
+        statement("c.md", "BF005", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        BulkImporter.Result result = bulkImporter.importDirectory(dir);
+
+        assertEquals(1, result.skipped());
+        assertEquals(2, result.imported());
+        assertEquals(600.0, transactionRepository.findByClientId("BF004").get(0).getTotalValue());
+        assertTrue(Files.exists(dir.resolve(BulkImporter.CHECKPOINT_FILE)));
+    }
+
+    /**
+     * Test that ids of bulk-inserted positions do not collide with positions saved through JPA
+     */
+    @Test
+    void testBulkAndUploadIdsDoNotCollide() throws IOException {
+        fileProcessingService.processFile(new MockMultipartFile("file", "up.md", "text/markdown", Files.readAllBytes(
+                statement("up.md", "BF006", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |"))));
+        Files.delete(dir.resolve("up.md"));
+        statement("bulk.md", "BF007", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |");
+        bulkImporter.importDirectory(dir);
+        fileProcessingService.processFile(new MockMultipartFile("file", "up2.md", "text/markdown", Files.readAllBytes(
+                statement("up2.md", "BF008", "2024-01-01", "| 1.00 | Apple Inc. | US0378331005 | AAPL | Aktie | 200.00 | 200.00 |"))));
+
+        assertEquals(3, jdbcTemplate.queryForObject("select count(distinct id) from transactions", Integer.class));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.tradingapp.service.diagnostics;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that uploads and queries are recorded as JFR events
+ */
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+        Path file = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO).withoutStackTrace();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .toList();
+    }
+
+    /**
+     * Test that an upload and each of its stages are committed as events
+     */
+    @Test
+    void testUploadEvents() throws IOException {
+        SlowUploadLog log = new SlowUploadLog(Duration.ofHours(1), 10);
+        Runnable upload = () -> {
+            UploadTrace trace = new UploadTrace("depot.pdf", 2048);
+            trace.mark("extract");
+            trace.mark("parse");
+            log.finish(trace, "committed");
+        };
+
+        List<RecordedEvent> uploads = record("tradingapp.Upload", upload);
+        assertEquals(1, uploads.size());
+        assertEquals("pdf", uploads.get(0).getString("fileType"));
+        assertEquals(2048, uploads.get(0).getLong("sizeBytes"));
+        assertEquals("committed", uploads.get(0).getString("outcome"));
+
+        List<RecordedEvent> stages = record("tradingapp.UploadStage", upload);
+        assertEquals(List.of("extract", "parse"), stages.stream().map(e -> e.getString("stage")).toList());
+    }
+
+    /**
+     * Test that a GET request under /api records the rows and bytes written
+     */
+    @Test
+    void testQueryEvent() throws IOException {
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                QueryEvent.record(new ServletWebRequest(request), "DEPOT01", 3);
+                response.getOutputStream().write(new byte[42]);
+            }
+        };
+        Runnable query = () -> {
+            try {
+                new QueryEventFilter().doFilter(new MockHttpServletRequest("GET", "/api/transactions/DEPOT01"),
+                        new MockHttpServletResponse(), new MockFilterChain(controller));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        List<RecordedEvent> queries = record("tradingapp.Query", query);
+        assertEquals(1, queries.size());
+        RecordedEvent event = queries.get(0);
+        assertEquals("/api/transactions/DEPOT01", event.getString("endpoint"));
+        assertEquals("DEPOT01", event.getString("depot"));
+        assertEquals(3, event.getInt("rows"));
+        assertEquals(42, event.getLong("bytes"));
+        assertEquals(200, event.getInt("status"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tradingapp.service.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SlowUploadLog
+ */
+class SlowUploadLogTest {
+
+    private static UploadTrace trace(String filename) {
+        UploadTrace trace = new UploadTrace(filename, 100);
+        trace.mark("parse");
+        return trace;
+    }
+
+    /**
+     * Test that uploads below the threshold are not recorded
+     */
+    @Test
+    void testFastUploadIsNotRecorded() {
+        SlowUploadLog log = new SlowUploadLog(Duration.ofHours(1), 10);
+
+        log.finish(trace("fast.md"), "committed");
+
+        assertTrue(log.recent().isEmpty());
+    }
+
+    /**
+     * Test that the ring buffer keeps the most recent slow uploads, newest first
+     */
+    @Test
+    void testRingBufferKeepsMostRecentNewestFirst() {
+        SlowUploadLog log = new SlowUploadLog(Duration.ZERO, 3);
+
+        for (int i = 1; i <= 5; i++) {
+            log.finish(trace("upload" + i + ".pdf"), "committed");
+        }
+
+        List<SlowUpload> recent = log.recent();
+        assertEquals(List.of("upload5.pdf", "upload4.pdf", "upload3.pdf"), recent.stream().map(SlowUpload::filename).toList());
+        assertEquals("pdf", recent.get(0).fileType());
+        assertEquals(List.of("parse"), List.copyOf(recent.get(0).stageNanos().keySet()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.tradingapp.service.extract;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DocumentExtractors and the per-format extractors
+ */
+class DocumentExtractorsTest {
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<PdfExtractor> pdf = mock(ObjectProvider.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<DocxExtractor> docx = mock(ObjectProvider.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<HtmlExtractor> html = mock(ObjectProvider.class);
+
+    private DocumentExtractors extractors(String... warmUp) {
+        when(pdf.getObject()).thenReturn(new PdfExtractor());
+        when(docx.getObject()).thenReturn(new DocxExtractor());
+        when(html.getObject()).thenReturn(new HtmlExtractor());
+        return new DocumentExtractors(pdf, docx, html, new TextExtractor(), warmUp);
+    }
+
+    private static String read(Reader reader) throws IOException {
+        try (reader) {
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[1024];
+            for (int n; (n = reader.read(buffer)) > 0; ) {
+                text.append(buffer, 0, n);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Test that Markdown uploads never resolve the PDF, Word or HTML extractors
+     */
+    @Test
+    void testMarkdownDoesNotResolveLazyExtractors() throws IOException {
+        DocumentExtractors extractors = extractors();
+        MockMultipartFile file = new MockMultipartFile("file", "depot.md", "text/markdown", "**Depot:** X\n".getBytes());
+
+        assertEquals("**Depot:** X\n", read(extractors.open(file, null)));
+        verify(pdf, never()).getObject();
+        verify(docx, never()).getObject();
+        verify(html, never()).getObject();
+    }
+
+    /**
+     * Test that warm-up only resolves the configured file types
+     */
+    @Test
+    void testWarmUpResolvesConfiguredTypesOnly() {
+        extractors("pdf", " HTML ", "").warmUp();
+
+        verify(pdf).getObject();
+        verify(html).getObject();
+        verify(docx, never()).getObject();
+    }
+
+    /**
+     * Test text extraction from a PDF, from memory and from a spilled file
+     */
+    @Test
+    void testPdfExtraction(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(50, 700);
+                content.showText("Depot: PDF001");
+                content.endText();
+            }
+            document.save(bytes);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "depot.pdf", "application/pdf", bytes.toByteArray());
+        Path spill = Files.write(dir.resolve("upload.pdf"), bytes.toByteArray());
+
+        assertTrue(read(extractors().open(file, null)).contains("Depot: PDF001"));
+        assertTrue(read(extractors().open(file, spill)).contains("Depot: PDF001"));
+    }
+
+    /**
+     * Test text extraction from a Word document, from memory and from a spilled file
+     */
+    @Test
+    void testDocxExtraction(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XWPFDocument document = new XWPFDocument()) {
+            document.createParagraph().createRun().setText("Depot: DOCX001");
+            document.write(bytes);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "depot.docx", "application/octet-stream", bytes.toByteArray());
+        Path spill = Files.write(dir.resolve("upload.docx"), bytes.toByteArray());
+
+        assertTrue(read(extractors().open(file, null)).contains("Depot: DOCX001"));
+        assertTrue(read(extractors().open(file, spill)).contains("Depot: DOCX001"));
+    }
+
+    /**
+     * Test that HTML extraction keeps the visible text only
+     */
+    @Test
+    void testHtmlExtraction() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "depot.html", "text/html",
+                "<html><body><h1>Depot: HTML001</h1><script>var x = 1;</script></body></html>".getBytes());
+
+        String text = read(extractors().open(file, null));
+        assertTrue(text.contains("Depot: HTML001"));
+        assertFalse(text.contains("var x"));
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.tradingapp.service.journal;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IngestionJournal
+ * Tests append, replay of the latest committed statement per depot, aborts and compaction
+ */
+class IngestionJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    private IngestionJournal openJournal(int segmentSize) throws IOException {
+        IngestionJournal journal = new IngestionJournal(true, journalDir.toString(), segmentSize, 3, false);
+        journal.open();
+        return journal;
+    }
+
+    private ParsedStatement statement(String depot, String date, String... tickers) {
+        ParsedStatement statement = new ParsedStatement(depot, date);
+        for (int i = 0; i < tickers.length; i++) {
+            Transaction position = new Transaction();
+            position.setClientId(depot);
+            position.setDate(date);
+            position.setAsset(tickers[i] + " Inc.");
+            position.setIsin("US000000000" + i);
+            position.setTransactionId(position.getIsin());
+            position.setTicker(tickers[i]);
+            position.setAssetType("Stock");
+            position.setQuantity(10 + i);
+            position.setUnitPrice(100.5);
+            position.setTotalValue((10 + i) * 100.5);
+            statement.addPosition(position);
+        }
+        return statement;
+    }
+
+    @Test
+    void testReplayReturnsLatestStatementPerDepot() throws IOException {
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement("D1", "01.01.2024", "AAPL")));
+        journal.markDurable(journal.append(statement("D2", "01.01.2024", "MSFT", "TSLA")));
+        journal.markDurable(journal.append(statement("D1", "01.02.2024", "NFLX", "AMZN")));
+
+        List<ParsedStatement> latest = journal.readLatestStatements();
+
+        assertEquals(2, latest.size());
+        ParsedStatement d1 = latest.stream().filter(s -> "D1".equals(s.getDepot())).findFirst().orElseThrow();
+        assertEquals("01.02.2024", d1.getStatementDate());
+        assertEquals(2, d1.getPositions().size());
+        Transaction first = d1.getPositions().get(0);
+        assertEquals("NFLX", first.getTicker());
+        assertEquals("D1", first.getClientId());
+        assertEquals(1005.0, first.getTotalValue(), 0.0001);
+    }
+
+    @Test
+    void testReplayPrefersNewerStatementDateOverUploadOrder() throws IOException {
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement("D1", "01.03.2024", "NFLX")));
+        journal.markDurable(journal.append(statement("D1", "01.01.2024", "AAPL")));
+        // A re-upload of the same day and an undated statement still replace the current one
+        journal.markDurable(journal.append(statement("D2", "2024-02-01", "MSFT")));
+        journal.markDurable(journal.append(statement("D2", "01.02.2024", "TSLA")));
+        journal.markDurable(journal.append(statement("D3", "01.02.2024", "MSFT")));
+        journal.markDurable(journal.append(statement("D3", "unknown", "TSLA")));
+
+        List<ParsedStatement> latest = openJournal(1 << 16).readLatestStatements();
+
+        assertEquals(3, latest.size());
+        for (ParsedStatement statement : latest) {
+            String expected = "D1".equals(statement.getDepot()) ? "NFLX" : "TSLA";
+            assertEquals(expected, statement.getPositions().get(0).getTicker(), statement.getDepot());
+        }
+    }
+
+    @Test
+    void testAbortedStatementIsNotReplayed() throws IOException {
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement("D1", "01.01.2024", "AAPL")));
+        journal.markAborted(journal.append(statement("D1", "01.02.2024", "BROKEN")));
+
+        List<ParsedStatement> latest = journal.readLatestStatements();
+
+        assertEquals(1, latest.size());
+        assertEquals("01.01.2024", latest.get(0).getStatementDate());
+    }
+
+    @Test
+    void testJournalSurvivesReopen() throws IOException {
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement("D1", "01.01.2024", "AAPL")));
+
+        IngestionJournal reopened = openJournal(1 << 16);
+        long sequence = reopened.append(statement("D2", "01.01.2024", "MSFT"));
+        reopened.markDurable(sequence);
+
+        assertEquals(2, sequence);
+        assertEquals(2, reopened.readLatestStatements().size());
+    }
+
+    @Test
+    void testUncommittedStatementIsNotReplayed() throws IOException {
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement("D1", "01.01.2024", "AAPL")));
+        // Crash before the upload's transaction completed
+        journal.append(statement("D1", "01.02.2024", "UNCOMMITTED"));
+
+        List<ParsedStatement> latest = openJournal(1 << 16).readLatestStatements();
+
+        assertEquals(1, latest.size());
+        assertEquals("01.01.2024", latest.get(0).getStatementDate());
+    }
+
+    @Test
+    void testCompactionKeepsCommitsOfLaterSegments() throws IOException {
+        IngestionJournal journal = openJournal(256);
+        long[] sequences = new long[25];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = journal.append(statement("D" + i, "01.01.2024", "AAPL"));
+        }
+        // Shares its segment with the last statement and stays in flight, so that segment is never compacted
+        journal.append(statement("IN-FLIGHT", "01.01.2024", "MSFT"));
+        for (int i = 0; i < sequences.length - 1; i++) {
+            if (i == 6) {
+                // Commit the last statement into a segment of commits only, which is compacted
+                journal.markDurable(sequences[sequences.length - 1]);
+            }
+            journal.markDurable(sequences[i]);
+        }
+
+        List<ParsedStatement> latest = openJournal(256).readLatestStatements();
+        assertEquals(sequences.length, latest.size());
+    }
+
+    @Test
+    void testCompactionKeepsOnlyLatestStatements() throws IOException {
+        // Small segments force a roll on almost every append
+        IngestionJournal journal = openJournal(256);
+        for (int month = 1; month <= 10; month++) {
+            String date = String.format("01.%02d.2024", month);
+            journal.markDurable(journal.append(statement("D1", date, "AAPL")));
+            journal.markDurable(journal.append(statement("D2", date, "MSFT")));
+        }
+
+        assertTrue(journal.segmentCount() < 10);
+        List<ParsedStatement> latest = journal.readLatestStatements();
+        assertEquals(2, latest.size());
+        assertTrue(latest.stream().allMatch(s -> "01.10.2024".equals(s.getStatementDate())));
+    }
+
+    @Test
+    void testStatedFiguresSurviveReplay() throws IOException {
+        ParsedStatement statement = statement("D1", "01.01.2024", "AAPL", "MSFT");
+        statement.setStatedPositionCount(2);
+        statement.setStatedTotalValue(2020.5);
+        IngestionJournal journal = openJournal(1 << 16);
+        journal.markDurable(journal.append(statement));
+
+        ParsedStatement replayed = journal.readLatestStatements().get(0);
+        assertEquals(2, replayed.getStatedPositionCount());
+        assertEquals(2020.5, replayed.getStatedTotalValue(), 0.0001);
+
+        // Payloads from before the stated figures end after the positions
+        byte[] encoded = StatementCodec.encode(statement("D2", "01.01.2024", "AAPL"));
+        ParsedStatement legacy = StatementCodec.decode(Arrays.copyOf(encoded, encoded.length - 2));
+        assertEquals(1, legacy.getPositions().size());
+        assertNull(legacy.getStatedPositionCount());
+        assertNull(legacy.getStatedTotalValue());
+    }
+
+    @Test
+    void testDisabledJournalIsNoOp() throws IOException {
+        IngestionJournal journal = new IngestionJournal(false, journalDir.toString(), 1024, 3, false);
+        journal.open();
+
+        assertEquals(-1, journal.append(statement("D1", "01.01.2024", "AAPL")));
+        assertTrue(journal.readLatestStatements().isEmpty());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.tradingapp.service.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator for corrupted " Stk. " statements: lines are dropped, duplicated,
+ * truncated or replaced by garbage. Shared with the parser benchmark.
+ */
+public final class FuzzedStatements {
+
+    private FuzzedStatements() {
+    }
+
+    public static String block(String quantity, String asset, String isin, String price, String value) {
+        return quantity + " Stk. " + asset + "\nISIN: " + isin + "\nLagerland: Deutschland\n"
+                + price + "\n01.02.2024\n" + value + "\n";
+    }
+
+    public static String generate(Random random, int blocks, double corruption) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < blocks; i++) {
+            lines.addAll(List.of(block(String.valueOf(1 + random.nextInt(100)), "Asset " + i,
+                    String.format("DE%010d", i), "12,50", "125,00").split("\n")));
+        }
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            double roll = random.nextDouble();
+            if (roll < corruption / 4) {
+                continue;
+            } else if (roll < corruption / 2) {
+                content.append(line).append('\n').append(line).append('\n');
+            } else if (roll < 3 * corruption / 4) {
+                content.append("#%&").append(random.nextInt()).append('\n');
+            } else if (roll < corruption) {
+                content.append(line, 0, random.nextInt(line.length() + 1)).append('\n');
+            } else {
+                content.append(line).append('\n');
+            }
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tradingapp.service.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the slice-based number parser in ParserSupport
+ */
+class ParserSupportTest {
+
+    private static double parseSlice(String cell) {
+        String line = "| " + cell + " |";
+        return ParserSupport.parseGermanNumber(line, 2, 2 + cell.length());
+    }
+
+    /**
+     * Test German, US and plain numbers
+     */
+    @Test
+    void testParseSlice_Formats() {
+        assertEquals(1234.56, parseSlice("1.234,56"));
+        assertEquals(1234.56, parseSlice("1,234.56"));
+        assertEquals(123.45, parseSlice("123,45"));
+        assertEquals(-0.5, parseSlice("-0,5"));
+        assertEquals(1e5, parseSlice("1e5"));
+        assertThrows(NumberFormatException.class, () -> parseSlice("n/a"));
+        assertThrows(NumberFormatException.class, () -> parseSlice("1,2,3"));
+        assertThrows(NumberFormatException.class, () -> parseSlice(""));
+    }
+
+    /**
+     * Test that the slice parser returns exactly what the String parser returns
+     */
+    @Test
+    void testParseSlice_MatchesStringParser() {
+        Random random = new Random(11);
+        char[] alphabet = {'0', '1', '5', '9', '.', ',', '-', 'e', ' '};
+        for (int round = 0; round < 20000; round++) {
+            StringBuilder cell = new StringBuilder();
+            for (int i = 1 + random.nextInt(18); i > 0; i--) {
+                cell.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String text = round % 2 == 0 ? cell.toString().replace("e", "").replace("-", "").replace(" ", "") : cell.toString();
+            Double expected;
+            try {
+                expected = ParserSupport.parseGermanNumber(text);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            if (expected == null) {
+                assertThrows(NumberFormatException.class, () -> parseSlice(text), text);
+            } else {
+                assertEquals(expected, parseSlice(text), text);
+            }
+        }
+    }
+}
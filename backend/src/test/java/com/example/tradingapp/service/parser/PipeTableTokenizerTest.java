@@ -0,0 +1,77 @@
+package com.example.tradingapp.service.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PipeTableTokenizer
+ */
+class PipeTableTokenizerTest {
+
+    private final PipeTableTokenizer tokenizer = new PipeTableTokenizer();
+
+    /**
+     * Test trimmed cell bounds over the original line
+     */
+    @Test
+    void testTokenize_CellBounds() {
+        String line = "| 10 | Tesla Inc. |  | TSLA |";
+
+        assertEquals(4, tokenizer.tokenize(line, 0, line.length()));
+        assertEquals("10", tokenizer.string(0));
+        assertEquals("Tesla Inc.", tokenizer.string(1));
+        assertTrue(tokenizer.isEmpty(2));
+        assertEquals(line.indexOf("TSLA"), tokenizer.start(3));
+        assertEquals(line.indexOf("TSLA") + 4, tokenizer.end(3));
+    }
+
+    /**
+     * Test that a row without leading pipe (after "||") is tokenized as if it had one
+     */
+    @Test
+    void testTokenize_ConcatenatedRows() {
+        String line = "| 1 | A || 2 | B |";
+        int end = PipeTableTokenizer.rowEnd(line, 0, line.length());
+
+        assertEquals(line.indexOf("||"), end);
+        assertEquals(2, tokenizer.tokenize(line, 0, end - 1));
+        assertEquals(2, tokenizer.tokenize(line, end + 3, line.length()));
+        assertEquals("B", tokenizer.string(1));
+    }
+
+    /**
+     * Test that cell counts and contents match String.split("\\|") on random rows
+     */
+    @Test
+    void testTokenize_MatchesSplit() {
+        Random random = new Random(7);
+        char[] alphabet = {'|', '|', ' ', 'a', '1', ',', '\t'};
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder row = new StringBuilder("|");
+            for (int i = random.nextInt(30); i > 0; i--) {
+                row.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String line = row.toString();
+            while (line.contains("||")) {
+                // "||" separates rows and is handled by rowEnd
+                line = line.replace("||", "| |");
+            }
+            line = line.trim();
+            if (line.equals("|")) {
+                // split() drops the leading empty part too when nothing else is left
+                continue;
+            }
+            String[] parts = line.split("\\|");
+
+            int cells = tokenizer.tokenize(line, 0, line.length());
+
+            assertEquals(parts.length, cells + 1, line);
+            for (int i = 0; i < cells; i++) {
+                assertEquals(parts[i + 1].trim(), tokenizer.string(i), line);
+            }
+        }
+    }
+}
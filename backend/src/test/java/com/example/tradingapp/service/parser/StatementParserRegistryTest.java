@@ -0,0 +1,161 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StatementParserRegistry
+ */
+class StatementParserRegistryTest {
+
+    private static final String TABLE = """
+            **Depot:** REG001
+            **Datum:** 01.02.2024
+
+            | STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+            |-----------------|------------|------|--------|-----|------|-----------|
+            | 10 | Tesla Inc. | US88160R1014 | TSLA | Aktie | 250,00 | 2.500,00 |
+            """;
+
+    private static final String LINES = """
+            **Depot:** REG002
+            **Datum:** 01.02.2024
+            3 Stk. iShares Core MSCI World ETF
+            ISIN: IE00B4L5Y983
+            Lagerland: Irland
+            80,50
+            01.02.2024
+            241,50
+            """;
+
+    private final StatementParserRegistry registry =
+            new StatementParserRegistry(List.of(new TradeRepublicTableParser(), new TradeRepublicLineParser()));
+
+    /**
+     * Test that the table signature selects the table parser and the header is applied to all rows
+     */
+    @Test
+    void testParse_TableFormat() throws Exception {
+        ParsedStatement statement = registry.parse(new StringReader(TABLE));
+
+        assertEquals("REG001", statement.getDepot());
+        assertEquals(1, statement.getPositions().size());
+        Transaction position = statement.getPositions().get(0);
+        assertEquals("REG001", position.getClientId());
+        assertEquals("01.02.2024", position.getDate());
+        assertEquals(2500.0, position.getTotalValue(), 0.001);
+    }
+
+    /**
+     * Test the line format, including custody lines between ISIN and price
+     */
+    @Test
+    void testParse_LineFormat() throws Exception {
+        ParsedStatement statement = registry.parse(new StringReader(LINES));
+
+        assertEquals(1, statement.getPositions().size());
+        Transaction position = statement.getPositions().get(0);
+        assertEquals("REG002", position.getClientId());
+        assertEquals("IE00B4L5Y983", position.getIsin());
+        assertEquals("ETF", position.getAssetType());
+        assertEquals(80.5, position.getUnitPrice(), 0.001);
+        assertEquals(241.5, position.getTotalValue(), 0.001);
+    }
+
+    /**
+     * Test that a header placed after the rows still reaches every position
+     */
+    @Test
+    void testParse_HeaderAfterRows() throws Exception {
+        String content = TABLE.substring(TABLE.indexOf("| STK.")) + "\n**Depot:** LATE001\n**Datum:** 03.03.2024\n";
+
+        ParsedStatement statement = registry.parse(new StringReader(content));
+
+        assertEquals("LATE001", statement.getPositions().get(0).getClientId());
+        assertEquals("03.03.2024", statement.getPositions().get(0).getDate());
+    }
+
+    /**
+     * Test that the summary figures are read and an unreadable one is reported as an issue
+     */
+    @Test
+    void testParse_SummaryFigures() throws Exception {
+        ParsedStatement statement = registry.parse(new StringReader(TABLE + """
+
+                ### Zusammenfassung
+
+                - **Anzahl Positionen:** 15
+                - **Gesamtwert:** **93.118,79 EUR**
+                """));
+        assertEquals(15, statement.getStatedPositionCount());
+        assertEquals(93118.79, statement.getStatedTotalValue(), 0.001);
+
+        ParsedStatement unreadable = registry.parse(new StringReader(TABLE + "- **Gesamtwert:** **n/a**\n"));
+        assertNull(unreadable.getStatedPositionCount());
+        assertNull(unreadable.getStatedTotalValue());
+        assertEquals(1, unreadable.getIssueCount());
+    }
+
+    /**
+     * Test that the last parser is the fallback when no signature matches
+     */
+    @Test
+    void testSelect_FallsBackToLastParser() {
+        assertInstanceOf(TradeRepublicLineParser.class, registry.select("no known layout here"));
+        assertInstanceOf(TradeRepublicTableParser.class, registry.select(TABLE));
+    }
+
+    /**
+     * Test that only the probe window is used for detection
+     */
+    @Test
+    void testSelect_SignatureBeyondProbeIsIgnored() throws Exception {
+        String content = "x\n".repeat(StatementParserRegistry.PROBE_SIZE) + TABLE;
+
+        ParsedStatement statement = registry.parse(new StringReader(content));
+
+        // The line parser finds no " Stk. " rows in a table
+        assertTrue(statement.getPositions().isEmpty());
+    }
+
+    /**
+     * Test that a new broker parser plugs in and reads the content from its first line
+     */
+    @Test
+    void testCustomParser_ReceivesWholeContent() throws Exception {
+        List<String> seen = new ArrayList<>();
+        StatementParser broker = new StatementParser() {
+            @Override
+            public String name() {
+                return "broker-x";
+            }
+
+            @Override
+            public boolean supports(CharSequence head) {
+                return head.toString().startsWith("BROKER-X");
+            }
+
+            @Override
+            public void parse(StatementReader reader, ParsedStatement statement) throws java.io.IOException {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    seen.add(line);
+                }
+            }
+        };
+        StatementParserRegistry withBroker =
+                new StatementParserRegistry(List.of(broker, new TradeRepublicTableParser(), new TradeRepublicLineParser()));
+
+        ParsedStatement statement = withBroker.parse(new StringReader("BROKER-X v1\n**Depot:** BX1\nrow\n"));
+
+        assertEquals(List.of("BROKER-X v1", "**Depot:** BX1", "row"), seen);
+        assertEquals("BX1", statement.getDepot());
+    }
+}
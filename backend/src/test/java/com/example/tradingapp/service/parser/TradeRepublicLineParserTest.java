@@ -0,0 +1,126 @@
+package com.example.tradingapp.service.parser;
+
+import com.example.tradingapp.model.ParsedStatement;
+import com.example.tradingapp.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.Random;
+
+import static com.example.tradingapp.service.parser.FuzzedStatements.block;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the " Stk. " line layout: recovery from malformed blocks and linear cost
+ */
+class TradeRepublicLineParserTest {
+
+    private final TradeRepublicLineParser parser = new TradeRepublicLineParser();
+
+    private ParsedStatement parse(String content) throws Exception {
+        ParsedStatement statement = new ParsedStatement();
+        parser.parse(new StatementReader(new BufferedReader(new StringReader(content)), statement), statement);
+        return statement;
+    }
+
+    /**
+     * Test well-formed blocks, including a name wrapped over two lines
+     */
+    @Test
+    void testParse_ValidBlocks() throws Exception {
+        String content = "Depotauszug\n"
+                + block("3", "iShares Core MSCI World ETF", "IE00B4L5Y983", "80,50", "241,50")
+                + "12 Stk. Siemens AG\nNamens-Aktien o.N.\nISIN: DE0007236101\nWertpapierrechnung Deutschland\n"
+                + "1.234,50\n01.02.2024\n14.814,00\n";
+
+        ParsedStatement statement = parse(content);
+
+        assertEquals(2, statement.getPositions().size());
+        assertTrue(statement.getIssues().isEmpty());
+        Transaction siemens = statement.getPositions().get(1);
+        assertEquals("DE0007236101", siemens.getIsin());
+        assertEquals(1234.5, siemens.getUnitPrice(), 0.001);
+        assertEquals(14814.0, siemens.getTotalValue(), 0.001);
+    }
+
+    /**
+     * Test that a block without ISIN is reported and parsing resyncs at the next anchor
+     */
+    @Test
+    void testParse_ResyncsAtNextAnchor() throws Exception {
+        String content = "5 Stk. Broken Corp.\n80,00\n"
+                + block("3", "Apple Inc.", "US0378331005", "150,00", "450,00");
+
+        ParsedStatement statement = parse(content);
+
+        assertEquals(1, statement.getPositions().size());
+        assertEquals("US0378331005", statement.getPositions().get(0).getIsin());
+        assertEquals(1, statement.getIssues().size());
+        assertTrue(statement.getIssues().get(0).contains("line 1"));
+    }
+
+    /**
+     * Test that an unreadable price skips only that block
+     */
+    @Test
+    void testParse_UnreadableNumber() throws Exception {
+        String content = block("1", "Bad Price AG", "DE0000000001", "n/a", "10,00")
+                + block("2", "Good Price AG", "DE0000000002", "5,00", "10,00");
+
+        ParsedStatement statement = parse(content);
+
+        assertEquals(1, statement.getPositions().size());
+        assertEquals("DE0000000002", statement.getPositions().get(0).getIsin());
+        assertEquals(1, statement.getIssues().size());
+    }
+
+    /**
+     * Test that look-ahead is bounded and a truncated last block is reported
+     */
+    @Test
+    void testParse_BoundedLookAheadAndTruncation() throws Exception {
+        String content = "1 Stk. Lost Inc.\n" + "noise\n".repeat(TradeRepublicLineParser.MAX_BLOCK_LINES + 5)
+                + block("2", "Found Inc.", "US0000000002", "5,00", "10,00")
+                + "7 Stk. Cut Off plc\nISIN: GB0000000007\n";
+
+        ParsedStatement statement = parse(content);
+
+        assertEquals(1, statement.getPositions().size());
+        assertEquals(2, statement.getIssues().size());
+    }
+
+    /**
+     * Test that adversarial input (anchors that never complete) stays linear
+     */
+    @Test
+    void testParse_AdversarialInputIsLinear() {
+        String content = "1 Stk. Anchor\n".repeat(200_000);
+
+        ParsedStatement statement = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> parse(content));
+
+        assertTrue(statement.getPositions().isEmpty());
+        assertEquals(200_000, statement.getIssueCount());
+        assertEquals(100, statement.getIssues().size());
+    }
+
+    /**
+     * Test random line drops, duplicates and garbage: never throws, never invents positions
+     */
+    @Test
+    void testParse_FuzzedStatements() throws Exception {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            String content = FuzzedStatements.generate(random, 20, 0.2);
+            int anchors = content.split(TradeRepublicLineParser.POSITION_MARKER, -1).length - 1;
+
+            ParsedStatement statement = parse(content);
+
+            assertTrue(statement.getPositions().size() + statement.getIssueCount() <= anchors + 1);
+            for (Transaction position : statement.getPositions()) {
+                assertFalse(position.getIsin().isEmpty());
+            }
+        }
+    }
+}
@@ -86,7 +86,7 @@ describe('Client Component', () => {
     render(<Client />);
     
     // Component should fetch with the stored client ID
-    expect(mockFetch).toHaveBeenCalledWith('http://localhost:8080/api/client/1');
+    expect(mockFetch).toHaveBeenCalledWith('http://localhost:8080/api/client/1', { cache: 'no-cache' });
   });
 
   it('should show error message when file upload fails', async () => {
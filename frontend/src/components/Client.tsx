@@ -21,7 +21,7 @@ const Client = () => {
   const [clientId, setClientId] = useState<string>('1');
 
   useEffect(() => {
-    fetch(`http://localhost:8080/api/client/${clientId}`)
+    fetch(`http://localhost:8080/api/client/${clientId}`, { cache: 'no-cache' })
       .then(res => res.json())
       .then(setClientInfo)
       .catch(console.error);
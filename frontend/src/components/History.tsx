@@ -20,7 +20,7 @@ const History = () => {
 
   useEffect(() => {
     const clientId = localStorage.getItem('clientId') || '1';
-    fetch(`http://localhost:8080/api/transactions/${clientId}`)
+    fetch(`http://localhost:8080/api/transactions/${clientId}`, { cache: 'no-cache' })
       .then(res => res.json())
       .then(setTransactions)
       .catch(console.error);
@@ -37,7 +37,7 @@ const Portfolio = () => {
 
   useEffect(() => {
     const clientId = localStorage.getItem('clientId') || '1';
-    fetch(`http://localhost:8080/api/transactions/${clientId}`)
+    fetch(`http://localhost:8080/api/transactions/${clientId}`, { cache: 'no-cache' })
       .then(res => res.json())
       .then((transactions: Transaction[]) => {
         const assetMap = new Map<string, { quantity: number; unitPrice: number; totalValue: number; isin: string; ticker: string; assetType: string }>();
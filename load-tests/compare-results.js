@@ -0,0 +1,69 @@
+#!/usr/bin/env node
+/**
+ * Compares the stored summaries of suite.js runs (results/suite-*.json).
+ * Prints p95 per endpoint for the last runs and flags endpoints whose p95
+ * regressed against the previous run by more than the allowed percentage.
+ *
+ * Run with:
+ * node compare-results.js                 # last 5 runs, 20% allowed regression
+ * node compare-results.js --last 10 --max-regression 10 --label baseline
+ *
+ * Exits with status 1 when a regression is found, so it can gate a CI job.
+ */
+const fs = require('fs');
+const path = require('path');
+
+function option(name, fallback) {
+  const index = process.argv.indexOf(`--${name}`);
+  return index >= 0 ? process.argv[index + 1] : fallback;
+}
+
+const resultsDir = path.join(__dirname, 'results');
+const last = parseInt(option('last', '5'));
+const maxRegression = parseFloat(option('max-regression', '20'));
+const label = option('label', null);
+
+const runs = fs.readdirSync(resultsDir)
+  .filter((file) => file.startsWith('suite-') && file.endsWith('.json'))
+  .map((file) => JSON.parse(fs.readFileSync(path.join(resultsDir, file), 'utf8')))
+  .filter((run) => !label || run.label === label)
+  .sort((a, b) => a.startedAt.localeCompare(b.startedAt))
+  .slice(-last);
+
+if (runs.length === 0) {
+  console.log(`No suite results in ${resultsDir}`);
+  process.exit(0);
+}
+
+const endpoints = [...new Set(runs.flatMap((run) => Object.keys(run.endpoints)))];
+const columns = runs.map((run) => `${run.startedAt.slice(0, 16)} ${run.label}`);
+console.log(`p95 (ms) per endpoint, oldest run first`);
+console.log(`${'endpoint'.padEnd(24)}${columns.map((c) => c.padStart(30)).join('')}`);
+
+let regressions = 0;
+for (const endpoint of endpoints) {
+  let line = endpoint.padEnd(24);
+  for (let i = 0; i < runs.length; i++) {
+    const current = runs[i].endpoints[endpoint];
+    const previous = i > 0 ? runs[i - 1].endpoints[endpoint] : undefined;
+    let cell = current ? current.p95.toFixed(1) : '-';
+    if (current && previous) {
+      const change = ((current.p95 - previous.p95) / previous.p95) * 100;
+      cell += ` (${change >= 0 ? '+' : ''}${change.toFixed(0)}%)`;
+      if (i === runs.length - 1 && change > maxRegression) {
+        cell += ' !';
+        regressions++;
+      }
+    }
+    line += cell.padStart(30);
+  }
+  console.log(line);
+}
+
+const latest = runs[runs.length - 1];
+console.log(`\nLatest run: thresholds ${latest.thresholdsPassed ? 'passed' : 'FAILED'}, `
+  + `failed requests ${((latest.failedRate || 0) * 100).toFixed(2)}%, dropped iterations ${latest.droppedIterations}`);
+if (regressions > 0) {
+  console.log(`${regressions} endpoint(s) regressed by more than ${maxRegression}% p95 against the previous run`);
+  process.exit(1);
+}
@@ -0,0 +1,37 @@
+/**
+ * Generated depot statements in the table format the backend parses
+ * (STK. / Wertpapier / ISIN / Symbol / Art / Kurs / Wert).
+ */
+
+const HEADER = `| STK. / Nominale | Wertpapier | ISIN | Symbol | Art | Kurs | Wert (EUR) |
+|-----------------|------------|------|--------|-----|------|-----------|
+`;
+
+/**
+ * Builds a statement for the depot with the given number of positions.
+ * Instruments are shared across depots (same ISIN for the same row index),
+ * quantities vary with the seed so repeated uploads change the positions.
+ */
+export function statement(depot, rows, seed = 0, date = '2024-01-15') {
+  const lines = [];
+  for (let i = 0; i < rows; i++) {
+    const quantity = ((seed + i) % 50) + 1;
+    const isin = `DE${String(i).padStart(10, '0')}`;
+    lines.push(`| ${quantity}.00 | Asset ${i} | ${isin} | A${i} | ${i % 5 === 0 ? 'ETF' : 'Aktie'} | 10.00 | ${quantity * 10}.00 |`);
+  }
+  return `
+**Depot:** ${depot}
+**Datum:** ${date}
+
+${HEADER}${lines.join('\n')}
+`;
+}
+
+/**
+ * ISO date of the n-th monthly statement starting January 2020
+ */
+export function monthlyDate(n) {
+  const year = 2020 + Math.floor(n / 12);
+  const month = String((n % 12) + 1).padStart(2, '0');
+  return `${year}-${month}-01`;
+}
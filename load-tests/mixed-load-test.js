@@ -0,0 +1,148 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate, Trend } from 'k6/metrics';
+import { statement } from './lib/statements.js';
+
+/**
+ * Mixed Load Test with K6
+ * Concurrent statement uploads and reads against the same depots, to compare
+ * the backend with and without the `perf` profile (pool, batching, fetch size).
+ *
+ * Run the backend once per configuration and label each run:
+ * SPRING_PROFILES_ACTIVE=prod       ... k6 run -e LABEL=prod mixed-load-test.js
+ * SPRING_PROFILES_ACTIVE=prod,perf  ... k6 run -e LABEL=prod-perf mixed-load-test.js
+ *
+ * Options (environment variables):
+ * UPLOAD_VUS (8), READ_VUS (40), DURATION (1m), ROWS positions per statement (200)
+ */
+
+// Custom metrics
+const errorRate = new Rate('errors');
+const uploadDuration = new Trend('upload_duration', true);
+const readDuration = new Trend('read_duration', true);
+
+const BACKEND_URL = __ENV.BACKEND_URL || 'http://localhost:8080';
+const LABEL = __ENV.LABEL || 'default';
+const UPLOAD_VUS = parseInt(__ENV.UPLOAD_VUS || '8');
+const READ_VUS = parseInt(__ENV.READ_VUS || '40');
+const DURATION = __ENV.DURATION || '1m';
+const ROWS = parseInt(__ENV.ROWS || '200');
+
+// Test configuration
+export const options = {
+  scenarios: {
+    uploads: {
+      executor: 'constant-vus',
+      exec: 'upload',
+      vus: UPLOAD_VUS,
+      duration: DURATION,
+    },
+    reads: {
+      executor: 'constant-vus',
+      exec: 'read',
+      vus: READ_VUS,
+      duration: DURATION,
+    },
+  },
+  summaryTrendStats: ['avg', 'min', 'med', 'max', 'p(95)', 'count'],
+  thresholds: {
+    'http_req_duration{scenario:reads}': ['p(95)<300'],
+    'http_req_duration{scenario:uploads}': ['p(95)<2000'],
+    http_req_failed: ['rate<0.01'],
+    errors: ['rate<0.01'],
+  },
+};
+
+function depotOf(vu) {
+  return `MIXED-${((vu - 1) % UPLOAD_VUS) + 1}`;
+}
+
+/**
+ * Setup: upload one statement per depot so reads hit populated depots
+ */
+export function setup() {
+  for (let vu = 1; vu <= UPLOAD_VUS; vu++) {
+    const depot = depotOf(vu);
+    const response = http.post(`${BACKEND_URL}/api/upload`, {
+      file: http.file(statement(depot, ROWS), 'portfolio.md', 'text/markdown'),
+    });
+    if (response.status !== 200) {
+      console.warn(`Setup warning: upload for ${depot} failed with status ${response.status}`);
+    }
+  }
+}
+
+/**
+ * Upload scenario: each VU keeps replacing the positions of its own depot
+ */
+export function upload() {
+  const depot = depotOf(__VU);
+  const response = http.post(`${BACKEND_URL}/api/upload`, {
+    file: http.file(statement(depot, ROWS, __ITER), 'portfolio.md', 'text/markdown'),
+  }, {
+    tags: { name: 'PostUpload' },
+  });
+
+  const checkResult = check(response, {
+    'POST upload status is 200': (r) => r.status === 200,
+  });
+  uploadDuration.add(response.timings.duration);
+  errorRate.add(!checkResult);
+}
+
+/**
+ * Read scenario: depot positions, client, statement history and cross-depot analytics
+ */
+export function read() {
+  const depot = depotOf(__VU + __ITER);
+  const requests = [
+    ['GetTransactions', `${BACKEND_URL}/api/transactions/${depot}`],
+    ['GetClient', `${BACKEND_URL}/api/client/${depot}`],
+    ['GetStatements', `${BACKEND_URL}/api/statements/${depot}`],
+    ['GetTopHoldings', `${BACKEND_URL}/api/analytics/top-holdings?limit=10`],
+  ];
+  const [name, url] = requests[__ITER % requests.length];
+  const response = http.get(url, { tags: { name } });
+
+  const checkResult = check(response, {
+    [`${name} status is 200`]: (r) => r.status === 200,
+  });
+  readDuration.add(response.timings.duration);
+  errorRate.add(!checkResult);
+}
+
+/**
+ * Handle summary: a compact, labelled result per run for side-by-side comparison
+ */
+export function handleSummary(data) {
+  const metrics = data.metrics;
+  const seconds = data.state.testRunDurationMs / 1000;
+  const trend = (metric) => ({
+    count: metric.values.count,
+    throughput: +(metric.values.count / seconds).toFixed(2),
+    p50: +metric.values.med.toFixed(2),
+    p95: +metric.values['p(95)'].toFixed(2),
+    max: +metric.values.max.toFixed(2),
+  });
+  const result = {
+    label: LABEL,
+    rows: ROWS,
+    uploadVus: UPLOAD_VUS,
+    readVus: READ_VUS,
+    uploads: trend(metrics.upload_duration),
+    reads: trend(metrics.read_duration),
+    failedRate: metrics.http_req_failed.values.rate,
+  };
+
+  let text = `\nMixed load (${LABEL}): ${ROWS} rows/statement, ${UPLOAD_VUS} upload VUs, ${READ_VUS} read VUs\n`;
+  for (const scenario of ['uploads', 'reads']) {
+    const r = result[scenario];
+    text += `  ${scenario}: ${r.throughput} req/s, p50 ${r.p50}ms, p95 ${r.p95}ms, max ${r.max}ms\n`;
+  }
+  text += `  failed: ${(result.failedRate * 100).toFixed(2)}%\n\n`;
+
+  return {
+    'stdout': text,
+    [`mixed-summary-${LABEL}.json`]: JSON.stringify(result, null, 2),
+  };
+}
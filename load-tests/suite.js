@@ -0,0 +1,254 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+import { Rate } from 'k6/metrics';
+import { statement, monthlyDate } from './lib/statements.js';
+
+/**
+ * Load Test Suite with K6
+ * Ingestion and large-history scenarios against a local backend, in three phases:
+ *
+ * 1. growing_uploads  concurrent uploads whose statements grow from SIZES[0] to the last size
+ * 2. many_depots      uploads of small statements to DEPOTS distinct depots, while
+ *    large_history    reads the current positions and history of a depot with HISTORY
+ *                     statements of LARGE_ROWS positions (uploaded in setup)
+ * 3. open_model       constant arrival rate of RATE requests/s (80% reads, 20% uploads),
+ *                     so slow responses queue up instead of slowing the load down
+ *
+ * Every endpoint has p50/p95/p99 thresholds. Each run writes a summary to
+ * results/suite-<timestamp>-<LABEL>.json; compare runs with `node compare-results.js`.
+ *
+ * Run with:
+ * k6 run -e LABEL=baseline suite.js
+ *
+ * Options (environment variables):
+ * PHASE (2m), UPLOAD_VUS (4), SIZES (50,200,1000,5000), DEPOTS (2000), LARGE_ROWS (5000),
+ * HISTORY (24), READ_VUS (10), RATE (50), GIT_SHA (recorded in the summary)
+ */
+
+// Custom metrics
+const errorRate = new Rate('errors');
+
+const BACKEND_URL = __ENV.BACKEND_URL || 'http://localhost:8080';
+const LABEL = __ENV.LABEL || 'local';
+const PHASE = __ENV.PHASE || '2m';
+const PHASE_SECONDS = parseDuration(PHASE);
+const UPLOAD_VUS = parseInt(__ENV.UPLOAD_VUS || '4');
+const SIZES = (__ENV.SIZES || '50,200,1000,5000').split(',').map((s) => parseInt(s));
+const DEPOTS = parseInt(__ENV.DEPOTS || '2000');
+const LARGE_DEPOT = 'LARGE-001';
+const LARGE_ROWS = parseInt(__ENV.LARGE_ROWS || '5000');
+const HISTORY = parseInt(__ENV.HISTORY || '24');
+const READ_VUS = parseInt(__ENV.READ_VUS || '10');
+const RATE = parseInt(__ENV.RATE || '50');
+
+/**
+ * p50/p95/p99 limits in ms per endpoint (the `name` tag of each request)
+ */
+const ENDPOINT_LIMITS = {
+  PostUploadGrowing: [1000, 4000, 8000],
+  PostUpload: [200, 600, 1500],
+  GetTransactions: [50, 200, 500],
+  GetLargeTransactions: [300, 1000, 2000],
+  GetClient: [20, 100, 300],
+  GetStatements: [30, 150, 400],
+  GetStatementPositions: [300, 1000, 2000],
+  GetHoldings: [100, 400, 1000],
+  GetTopHoldings: [50, 200, 500],
+};
+
+const thresholds = {
+  http_req_failed: ['rate<0.01'],
+  errors: ['rate<0.01'],
+};
+for (const [name, [p50, p95, p99]] of Object.entries(ENDPOINT_LIMITS)) {
+  thresholds[`http_req_duration{name:${name}}`] = [`p(50)<${p50}`, `p(95)<${p95}`, `p(99)<${p99}`];
+}
+
+// Test configuration
+export const options = {
+  setupTimeout: '10m',
+  summaryTrendStats: ['avg', 'min', 'med', 'max', 'p(50)', 'p(95)', 'p(99)', 'count'],
+  thresholds,
+  scenarios: {
+    growing_uploads: {
+      executor: 'constant-vus',
+      exec: 'growingUpload',
+      vus: UPLOAD_VUS,
+      duration: PHASE,
+    },
+    many_depots: {
+      executor: 'shared-iterations',
+      exec: 'depotUpload',
+      vus: UPLOAD_VUS * 2,
+      iterations: DEPOTS,
+      maxDuration: PHASE,
+      startTime: PHASE,
+    },
+    large_history: {
+      executor: 'constant-vus',
+      exec: 'largeHistoryRead',
+      vus: READ_VUS,
+      duration: PHASE,
+      startTime: PHASE,
+    },
+    open_model: {
+      executor: 'constant-arrival-rate',
+      exec: 'openModel',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: PHASE,
+      preAllocatedVUs: Math.max(10, RATE),
+      maxVUs: RATE * 4,
+      startTime: `${PHASE_SECONDS * 2}s`,
+    },
+  },
+};
+
+function parseDuration(value) {
+  const match = /^(\d+)(s|m|h)$/.exec(value);
+  if (!match) {
+    throw new Error(`Unsupported duration ${value}, use e.g. 90s, 2m or 1h`);
+  }
+  return parseInt(match[1]) * { s: 1, m: 60, h: 3600 }[match[2]];
+}
+
+function upload(depot, rows, seed, date, name) {
+  const response = http.post(`${BACKEND_URL}/api/upload`, {
+    file: http.file(statement(depot, rows, seed, date), 'statement.md', 'text/markdown'),
+  }, {
+    tags: { name, rows: String(rows) },
+    timeout: '120s',
+  });
+  const checkResult = check(response, {
+    [`${name} status is 200`]: (r) => r.status === 200,
+  });
+  errorRate.add(!checkResult);
+}
+
+function get(name, path) {
+  const response = http.get(`${BACKEND_URL}${path}`, { tags: { name } });
+  const checkResult = check(response, {
+    [`${name} status is 200`]: (r) => r.status === 200,
+  });
+  errorRate.add(!checkResult);
+}
+
+/**
+ * Setup: the large depot with HISTORY monthly statements, oldest first
+ */
+export function setup() {
+  console.log(`Uploading ${HISTORY} statement(s) of ${LARGE_ROWS} positions for ${LARGE_DEPOT}...`);
+  for (let n = 0; n < HISTORY; n++) {
+    const response = http.post(`${BACKEND_URL}/api/upload`, {
+      file: http.file(statement(LARGE_DEPOT, LARGE_ROWS, n, monthlyDate(n)), 'large.md', 'text/markdown'),
+    }, { timeout: '120s' });
+    if (response.status !== 200) {
+      console.warn(`Setup warning: statement ${monthlyDate(n)} failed with status ${response.status}`);
+    }
+  }
+}
+
+/**
+ * Phase 1: statement size steps through SIZES as the scenario progresses
+ */
+export function growingUpload() {
+  const step = Math.min(SIZES.length - 1, Math.floor(exec.scenario.progress * SIZES.length));
+  upload(`GROW-${__VU}`, SIZES[step], __ITER, '2024-01-15', 'PostUploadGrowing');
+}
+
+/**
+ * Phase 2: one small statement for each of DEPOTS distinct depots
+ */
+export function depotUpload() {
+  upload(`DEPOT-${exec.scenario.iterationInTest}`, 20, exec.scenario.iterationInTest, '2024-01-15', 'PostUpload');
+}
+
+/**
+ * Phase 2: current positions, history and a historical statement of the large depot
+ */
+export function largeHistoryRead() {
+  switch (__ITER % 4) {
+    case 0:
+      get('GetLargeTransactions', `/api/transactions/${LARGE_DEPOT}`);
+      break;
+    case 1:
+      get('GetStatements', `/api/statements/${LARGE_DEPOT}`);
+      break;
+    case 2:
+      get('GetStatementPositions', `/api/statements/${LARGE_DEPOT}/${monthlyDate(Math.floor(Math.random() * HISTORY))}`);
+      break;
+    default:
+      get('GetHoldings', `/api/holdings/DE${String(__ITER % 100).padStart(10, '0')}`);
+  }
+}
+
+/**
+ * Phase 3: open model over the depots created in phase 2
+ */
+export function openModel() {
+  const depot = `DEPOT-${Math.floor(Math.random() * DEPOTS)}`;
+  const pick = Math.random();
+  if (pick < 0.2) {
+    upload(depot, 20, exec.scenario.iterationInTest, '2024-02-15', 'PostUpload');
+  } else if (pick < 0.5) {
+    get('GetTransactions', `/api/transactions/${depot}`);
+  } else if (pick < 0.7) {
+    get('GetClient', `/api/client/${depot}`);
+  } else if (pick < 0.85) {
+    get('GetStatements', `/api/statements/${depot}`);
+  } else {
+    get('GetTopHoldings', '/api/analytics/top-holdings?limit=10');
+  }
+}
+
+/**
+ * Handle summary: per-endpoint percentiles and threshold results as JSON for trend comparison
+ */
+export function handleSummary(data) {
+  const startedAt = new Date(Date.now() - data.state.testRunDurationMs).toISOString();
+  const result = {
+    label: LABEL,
+    startedAt,
+    gitSha: __ENV.GIT_SHA || null,
+    config: { phase: PHASE, uploadVus: UPLOAD_VUS, sizes: SIZES, depots: DEPOTS, largeRows: LARGE_ROWS,
+      history: HISTORY, readVus: READ_VUS, rate: RATE },
+    durationMs: data.state.testRunDurationMs,
+    failedRate: data.metrics.http_req_failed ? data.metrics.http_req_failed.values.rate : null,
+    droppedIterations: data.metrics.dropped_iterations ? data.metrics.dropped_iterations.values.count : 0,
+    endpoints: {},
+    thresholdsPassed: true,
+  };
+
+  let text = `\nLoad test suite (${LABEL})\n`;
+  text += `  ${'endpoint'.padEnd(24)}${'count'.padStart(8)}${'p50'.padStart(10)}${'p95'.padStart(10)}${'p99'.padStart(10)}\n`;
+  for (const name of Object.keys(ENDPOINT_LIMITS)) {
+    const metric = data.metrics[`http_req_duration{name:${name}}`];
+    if (!metric || !metric.values.count) {
+      continue;
+    }
+    const values = metric.values;
+    const endpoint = {
+      count: values.count,
+      p50: +values['p(50)'].toFixed(2),
+      p95: +values['p(95)'].toFixed(2),
+      p99: +values['p(99)'].toFixed(2),
+      max: +values.max.toFixed(2),
+      thresholdsPassed: Object.values(metric.thresholds || {}).every((t) => t.ok),
+    };
+    result.endpoints[name] = endpoint;
+    text += `  ${(name + (endpoint.thresholdsPassed ? '' : ' (!)')).padEnd(24)}${String(endpoint.count).padStart(8)}`
+      + `${endpoint.p50.toFixed(1).padStart(10)}${endpoint.p95.toFixed(1).padStart(10)}${endpoint.p99.toFixed(1).padStart(10)}\n`;
+  }
+  for (const metric of Object.values(data.metrics)) {
+    for (const threshold of Object.values(metric.thresholds || {})) {
+      result.thresholdsPassed = result.thresholdsPassed && threshold.ok;
+    }
+  }
+  text += `  failed: ${((result.failedRate || 0) * 100).toFixed(2)}%, dropped iterations: ${result.droppedIterations}\n\n`;
+
+  return {
+    'stdout': text,
+    [`results/suite-${startedAt.replace(/[:.]/g, '-')}-${LABEL}.json`]: JSON.stringify(result, null, 2),
+  };
+}